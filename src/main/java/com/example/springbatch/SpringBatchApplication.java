@@ -1,8 +1,11 @@
 package com.example.springbatch;
 
+import com.example.springbatch.support.SelectedJobBeanFactoryPostProcessor;
+import com.example.springbatch.support.StartupMetricsListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
 @EnableBatchProcessing
@@ -12,4 +15,16 @@ public class SpringBatchApplication {
         SpringApplication.run(SpringBatchApplication.class, args);
     }
 
+    // --job.name 으로 고른 잡만 만들고 나머지 잡/스텝은 만들지 않음
+    // BeanFactoryPostProcessor 는 다른 빈보다 먼저 만들어져야 해서 static
+    @Bean
+    public static SelectedJobBeanFactoryPostProcessor selectedJobBeanFactoryPostProcessor() {
+        return new SelectedJobBeanFactoryPostProcessor();
+    }
+
+    @Bean
+    public StartupMetricsListener startupMetricsListener() {
+        return new StartupMetricsListener();
+    }
+
 }
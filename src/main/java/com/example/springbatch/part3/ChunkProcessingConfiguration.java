@@ -12,7 +12,6 @@ import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.support.ListItemReader;
 import org.springframework.batch.repeat.RepeatStatus;
@@ -46,7 +45,7 @@ public class ChunkProcessingConfiguration {
     public Step chunkBaseStep(@Value("#{jobParameters[chunkSize]}") String chunkSize) {
         return stepBuilderFactory.get("chunkBaseStep")
                 .<String, String>chunk(StringUtils.isNotEmpty(chunkSize) ? Integer.parseInt(chunkSize) : 10)
-                .reader(itemReader())
+                .reader(chunkBaseItemReader())
                 .processor(itemProcessor())
                 .writer(itemWriter())
                 .build();
@@ -62,7 +61,10 @@ public class ChunkProcessingConfiguration {
         return item -> item + ", Spring Batch";
     }
 
-    private ItemReader<String> itemReader() {
+    // 스텝 실행마다 새 reader (ListItemReader 는 한번 다 읽으면 비어 있음)
+    @Bean
+    @StepScope
+    public ListItemReader<String> chunkBaseItemReader() {
         return new ListItemReader<>(getItems());
     }
 
@@ -11,12 +11,26 @@ public class DuplicateValidationProcessor<T> implements ItemProcessor<T, T> {
     private final Map<String, Object> keyPool = new ConcurrentHashMap<>();
     private final Function<T, String> keyExtractor;
     private final boolean allowDuplicate;
+    private final boolean sorted;
+
+    //sorted 모드에서 바로 앞 아이템의 key
+    private String lastKey;
 
     public DuplicateValidationProcessor(Function<T, String> keyExtractor,
                                         boolean allowDuplicate) {
 
+        this(keyExtractor, allowDuplicate, false);
+    }
+
+    // sorted=true 면 입력이 key 순으로 정렬되어 있다고 보고 바로 앞 key 하고만 비교 (key 를 모아두지 않음)
+    // 싱글 스레드 스텝에서만 사용
+    public DuplicateValidationProcessor(Function<T, String> keyExtractor,
+                                        boolean allowDuplicate,
+                                        boolean sorted) {
+
         this.keyExtractor = keyExtractor;
         this.allowDuplicate = allowDuplicate;
+        this.sorted = sorted;
     }
 
     @Override
@@ -27,6 +41,15 @@ public class DuplicateValidationProcessor<T> implements ItemProcessor<T, T> {
 
         String key = keyExtractor.apply(item);
 
+        if (sorted) {
+            if (lastKey != null && lastKey.equals(key)) {
+                return null;
+            }
+
+            lastKey = key;
+            return item;
+        }
+
         if (keyPool.containsKey(key)) {
             return null;
         }
@@ -34,4 +57,4 @@ public class DuplicateValidationProcessor<T> implements ItemProcessor<T, T> {
         keyPool.put(key, key);
         return item;
     }
-}
\ No newline at end of file
+}
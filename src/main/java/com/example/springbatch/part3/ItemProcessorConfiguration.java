@@ -1,14 +1,15 @@
 package com.example.springbatch.part3;
 
+import com.example.springbatch.support.ChunkSummaryItemWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,14 +38,15 @@ public class ItemProcessorConfiguration {
     public Step itemProcessorStep() {
         return this.stepBuilderFactory.get("itemProcessorStep")
                 .<Person, Person>chunk(10)
-                .reader(itemReader())
+                .reader(itemProcessorItemReader())
                 .processor(itemProcessor())
                 .writer(itemWriter())
                 .build();
     }
 
+    // 아이템마다 남기던 로그 대신 청크 요약 (첫/마지막 id, 건수)
     private ItemWriter<Person> itemWriter() {
-        return items -> items.forEach(x -> log.info("PERSON.ID : {}", x.getId()));
+        return new ChunkSummaryItemWriter<>("itemProcessorStep", Person::getId);
     }
 
     private ItemProcessor<Person, Person> itemProcessor() {
@@ -57,7 +59,10 @@ public class ItemProcessorConfiguration {
         };
     }
 
-    private ItemReader<Person> itemReader() {
+    // 스텝 실행마다 새 reader (CustomItemReader 는 한번 다 읽으면 비어 있음)
+    @Bean
+    @StepScope
+    public CustomItemReader<Person> itemProcessorItemReader() {
         return new CustomItemReader<>(getItems());
     }
 
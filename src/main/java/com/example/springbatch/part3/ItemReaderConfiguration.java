@@ -1,60 +1,96 @@
 package com.example.springbatch.part3;
 
+import com.example.springbatch.support.BatchSupportConfiguration;
+import com.example.springbatch.support.ChunkSummaryItemWriter;
+import com.example.springbatch.support.ConnectionPoolGovernor;
+import com.example.springbatch.support.ReaderMetricsListener;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.support.SimpleFlow;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.HibernateCursorItemReader;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
-import org.springframework.batch.item.database.JpaCursorItemReader;
+import org.springframework.batch.item.database.builder.HibernateCursorItemReaderBuilder;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
-import org.springframework.batch.item.database.builder.JpaCursorItemReaderBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.mapping.DefaultLineMapper;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Configuration
 @Slf4j
 @RequiredArgsConstructor
+@Import(BatchSupportConfiguration.class)
 public class ItemReaderConfiguration {
 
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final DataSource dataSource;
     private final EntityManagerFactory entityManagerFactory;
+    private final ConnectionPoolGovernor connectionPoolGovernor;
+    private final MeterRegistry meterRegistry;
 
-
+    @Value("${batch.reader.fetch-size:100}")
+    private int fetchSize;
 
     @Bean
     public Job itemReaderJob() throws Exception {
+        //서로 의존하지 않는 스텝들이라 split 으로 동시에 실행
+        //모든 flow 가 끝날 때까지 기다리고(barrier) 그 중 가장 나쁜 상태가 job 상태가 됨
+        Flow readerFlows = new FlowBuilder<SimpleFlow>("itemReaderSplitFlow")
+                .split(itemReaderTaskExecutor())
+                .add(flow(this.customItemReaderStep()), flow(csvFileStep()), flow(jdbcStep()), flow(jpaStep()))
+                .build();
+
         return this.jobBuilderFactory.get("itemReaderJob")
                 .incrementer(new RunIdIncrementer())
-                .start(this.customItemReaderStep())
-                .next(csvFileStep())
-                .next(jdbcStep())
-                .next(jpaStep())
+                .start(readerFlows)
+                .end()
+                .build();
+    }
+
+    private Flow flow(Step step) {
+        return new FlowBuilder<SimpleFlow>(step.getName() + "Flow")
+                .start(step)
                 .build();
     }
 
+    // 동시에 실행할 flow 수를 4개로 제한하고, DB 를 쓰는 스텝은 커넥션 풀 permit 을 얻은 뒤 실행
+    private TaskExecutor itemReaderTaskExecutor() {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("itemReaderJob-");
+        taskExecutor.setConcurrencyLimit(connectionPoolGovernor.concurrencyFor(4));
+
+        return connectionPoolGovernor.govern("itemReaderJob", taskExecutor);
+    }
+
     @Bean
     public Step customItemReaderStep() {
         return this.stepBuilderFactory.get("customItemReaderStep")
                 .<Person, Person>chunk(10)
-                .reader(new CustomItemReader<>(getItems()))
-                .writer(itemWriter())
+                .reader(customItemReader())
+                .writer(itemWriter("customItemReaderStep"))
                 .build();
     }
 
@@ -64,7 +100,7 @@ public class ItemReaderConfiguration {
         return stepBuilderFactory.get("csvFileStep")
                 .<Person, Person>chunk(10)
                 .reader(csvFileItemReader())
-                .writer(itemWriter())
+                .writer(itemWriter("csvFileStep"))
                 .build();
     }
 
@@ -73,7 +109,8 @@ public class ItemReaderConfiguration {
         return stepBuilderFactory.get("jdbcStep")
                 .<Person, Person>chunk(10)
                 .reader(jdbcCursorItemReader())
-                .writer(itemWriter())
+                .writer(itemWriter("jdbcStep"))
+                .listener(new ReaderMetricsListener(meterRegistry))
                 .build();
     }
 
@@ -83,15 +120,30 @@ public class ItemReaderConfiguration {
         return stepBuilderFactory.get("jpaStep")
                 .<Person, Person>chunk(10)
                 .reader(this.jpaCursorItemReader())
-                .writer(itemWriter())
+                .writer(itemWriter("jpaStep"))
+                .listener(new ReaderMetricsListener(meterRegistry))
                 .build();
     }
 
-    private JpaCursorItemReader<Person> jpaCursorItemReader() throws Exception {
-        JpaCursorItemReader<Person> itemReader = new JpaCursorItemReaderBuilder<Person>()
+    // reader 는 스텝 실행마다 새로 만듦 : 상주 모드(batch.server.enabled)에서 같은 잡을 다시 실행해도 처음부터 읽음
+    @Bean
+    @StepScope
+    public CustomItemReader<Person> customItemReader() {
+        return new CustomItemReader<>(getItems());
+    }
+
+    // JpaCursorItemReader 는 읽은 엔티티가 스텝이 끝날 때까지 EntityManager 에 붙어 있어서 테이블 크기만큼 힙이 커짐
+    // StatelessSession 으로 읽으면 영속성 컨텍스트가 없어서 청크를 넘어가며 쌓이는 엔티티가 없음
+    // fetchSize 만큼씩 DB 에서 가져옴 (-Dbatch.reader.fetch-size=100)
+    @Bean
+    @StepScope
+    public HibernateCursorItemReader<Person> jpaCursorItemReader() throws Exception {
+        HibernateCursorItemReader<Person> itemReader = new HibernateCursorItemReaderBuilder<Person>()
                 .name("jpaCursorItemReader")
-                .entityManagerFactory(entityManagerFactory)
+                .sessionFactory(entityManagerFactory.unwrap(SessionFactory.class))
                 .queryString("select p from Person p")
+                .useStatelessSession(true)
+                .fetchSize(fetchSize)
                 .build();
         itemReader.afterPropertiesSet();
 
@@ -99,11 +151,16 @@ public class ItemReaderConfiguration {
     }
 
 
-    private JdbcCursorItemReader<Person> jdbcCursorItemReader() throws Exception {
+    @Bean
+    @StepScope
+    public JdbcCursorItemReader<Person> jdbcCursorItemReader() throws Exception {
         JdbcCursorItemReader<Person> itemReader = new JdbcCursorItemReaderBuilder<Person>()
                 .name("jdbcCursorItemReader")
                 .dataSource(dataSource)
                 .sql("select id, name, age, address from person")
+                //MySQL 은 fetchSize 를 주지 않으면 결과 전체를 클라이언트에 버퍼링한 뒤 첫 row 를 돌려줌
+                //mysql 프로파일은 useCursorFetch=true 라서 fetchSize 만큼씩 서버 커서로 가져옴
+                .fetchSize(fetchSize)
                 //rowMapper로 Person객체 매핑
                 .rowMapper((rs, rowNum) -> new Person(
                         rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4)))
@@ -114,7 +171,9 @@ public class ItemReaderConfiguration {
     }
 
 
-    private FlatFileItemReader<Person> csvFileItemReader() throws Exception {
+    @Bean
+    @StepScope
+    public FlatFileItemReader<Person> csvFileItemReader() throws Exception {
         //csv파일을 한줄씩 읽을수 있는 lineMapper
         DefaultLineMapper<Person> lineMapper = new DefaultLineMapper<>();
 
@@ -151,10 +210,9 @@ public class ItemReaderConfiguration {
 
 
 
-    private ItemWriter<Person> itemWriter() {
-        return items -> log.info(items.stream()
-                .map(Person::getName)
-                .collect(Collectors.joining(", ")));
+    // 이름을 전부 이어붙이던 로그 대신 청크 요약 (첫/마지막 이름, 건수)
+    private ItemWriter<Person> itemWriter(String stepName) {
+        return new ChunkSummaryItemWriter<>(stepName, Person::getName);
     }
 
     private List<Person> getItems() {
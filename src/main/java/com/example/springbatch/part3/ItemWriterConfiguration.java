@@ -1,13 +1,18 @@
 package com.example.springbatch.part3;
 
+import com.example.springbatch.support.BatchSupportConfiguration;
+import com.example.springbatch.support.BufferedFileItemWriter;
+import com.example.springbatch.support.ConnectionPoolGovernor;
+import com.example.springbatch.support.FileWriterOptions;
+import com.example.springbatch.support.ParallelCompositeItemWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
@@ -20,22 +25,33 @@ import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
 import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Configuration
 @Slf4j
 @RequiredArgsConstructor
+@Import(BatchSupportConfiguration.class)
 public class ItemWriterConfiguration {
 
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final DataSource dataSource;
     private final EntityManagerFactory entityManagerFactory;
+    private final PlatformTransactionManager transactionManager;
+    private final ConnectionPoolGovernor connectionPoolGovernor;
+    private final FileWriterOptions fileWriterOptions;
 
 
 
@@ -49,11 +65,49 @@ public class ItemWriterConfiguration {
                 .build();
     }
 
+    // 같은 100건을 CSV, JDBC, JPA 에 쓰는데 itemWriterJob 처럼 스텝마다 다시 읽지 않고
+    // 한번 읽은 청크를 세 writer 에 동시에 나눠줌 (각자 트랜잭션, 셋 다 성공해야 같이 커밋되고 하나라도 실패하면 전부 롤백)
+    @Bean
+    public Job itemWriterFanOutJob() throws Exception {
+        return this.jobBuilderFactory.get("itemWriterFanOutJob")
+                .incrementer(new RunIdIncrementer())
+                .start(this.fanOutItemWriterStep())
+                .build();
+    }
+
+    @Bean
+    public Step fanOutItemWriterStep() throws Exception {
+        Map<String, ItemWriter<? super Person>> writers = new LinkedHashMap<>();
+        writers.put("csv", csvFileItemWriter());
+        writers.put("jdbc", jdbcBatchItemWriter());
+        //persist 가 id 를 채우면서 아이템을 바꾸기 때문에 JPA 는 복사본을 씀
+        writers.put("jpa", copying(jpaItemWriter()));
+
+        return stepBuilderFactory.get("fanOutItemWriterStep")
+                .<Person, Person>chunk(10)
+                .reader(itemWriterItemReader())
+                .writer(new ParallelCompositeItemWriter<>("fanOutItemWriterStep", writers,
+                        fanOutTaskExecutor(), transactionManager, connectionPoolGovernor))
+                .build();
+    }
+
+    private ItemWriter<Person> copying(ItemWriter<Person> delegate) {
+        return items -> delegate.write(items.stream()
+                .map(person -> new Person(person.getName(), person.getAge(), person.getAddress()))
+                .collect(Collectors.toList()));
+    }
+
+    // writer 들이 커밋 직전까지 동시에 떠 있어야 해서 동시 실행 수를 제한하지 않음
+    // 커넥션은 ParallelCompositeItemWriter 가 governor 에서 writer 수만큼 한번에 얻음
+    private TaskExecutor fanOutTaskExecutor() {
+        return new SimpleAsyncTaskExecutor("itemWriterFanOut-");
+    }
+
     @Bean
     public Step jpaItemWriterStep() throws Exception {
         return stepBuilderFactory.get("jpaItemWriterStep")
                 .<Person, Person>chunk(10)
-                .reader(itemReader())
+                .reader(itemWriterItemReader())
                 .writer(jpaItemWriter())
                 .build();
     }
@@ -72,7 +126,7 @@ public class ItemWriterConfiguration {
     public Step jdbcBatchItemWriterStep() {
         return stepBuilderFactory.get("jdbcBatchItemWriterStep")
                 .<Person, Person>chunk(10)
-                .reader(itemReader())
+                .reader(itemWriterItemReader())
                 .writer(jdbcBatchItemWriter())
                 .build();
     }
@@ -94,7 +148,7 @@ public class ItemWriterConfiguration {
     public Step csvItemWriterStep() throws Exception {
         return this.stepBuilderFactory.get("csvItemWriterStep")
                 .<Person, Person>chunk(10)
-                .reader(itemReader())
+                .reader(itemWriterItemReader())
                 .writer(csvFileItemWriter())
                 .build();
     }
@@ -110,6 +164,17 @@ public class ItemWriterConfiguration {
         lineAggregator.setDelimiter(",");
         lineAggregator.setFieldExtractor(fieldExtractor);
 
+        //batch.file-writer.buffered=true 면 큰 버퍼 + FileChannel 로 쓰는 writer 사용
+        if (fileWriterOptions.isBuffered()) {
+            BufferedFileItemWriter<Person> itemWriter = new BufferedFileItemWriter<>(
+                    "csvFileItemWriter", new FileSystemResource("output/test-output.csv"), lineAggregator);
+            itemWriter.setEncoding("UTF-8");
+            itemWriter.setHeaderCallback(writer -> writer.write("id,이름,나이,거주지"));
+            itemWriter.setFooterCallback(writer -> writer.write("-------------------\n"));
+            itemWriter.setAppend(true);
+
+            return fileWriterOptions.configure(itemWriter);
+        }
 
         FlatFileItemWriter<Person> itemWriter = new FlatFileItemWriterBuilder<Person>()
                 .name("csvFileItemWriter")
@@ -131,7 +196,10 @@ public class ItemWriterConfiguration {
         return itemWriter;
     }
 
-    private ItemReader<Person> itemReader() {
+    // 스텝 실행마다 새 reader (CustomItemReader 는 한번 다 읽으면 비어 있음)
+    @Bean
+    @StepScope
+    public CustomItemReader<Person> itemWriterItemReader() {
         return new CustomItemReader<>(getItems());
     }
 
@@ -1,18 +1,31 @@
 package com.example.springbatch.part3;
 
 
+import com.example.springbatch.part5.JobParametersDecide;
+import com.example.springbatch.support.BisectingItemWriter;
+import com.example.springbatch.support.ChunkSummaryItemWriter;
+import com.example.springbatch.support.ExternalSortTasklet;
+import com.example.springbatch.support.FlightRecorderChunkListener;
+import io.micrometer.core.instrument.util.StringUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.JpaItemWriter;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
 import org.springframework.batch.item.database.builder.JpaItemWriterBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
@@ -26,54 +39,126 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.crossstore.ChangeSetPersister;
 
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import javax.sql.DataSource;
+import java.util.Map;
 
 @Configuration
 @Slf4j
 @RequiredArgsConstructor
 public class SavePersonConfiguration {
 
+    private static final String PERSON_FILE = "person.csv";
+    private static final String SORTED_PERSON_FILE = "savePerson.sortedFile";
+
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    // 외부 정렬 시 한번에 메모리에서 정렬할 최대 줄 수
+    @Value("${batch.external-sort.run-size:100000}")
+    private int sortRunSize;
+
+    @Value("${batch.save-person.bisect-writes:false}")
+    private boolean bisectWrites;
+
+    @Value("${batch.jfr.enabled:false}")
+    private boolean flightRecorderEnabled;
 
 
     @Bean
     public Job savePersonJob() throws Exception {
+        //savePersonStep 의 정렬 모드와 같은 기준 (-sort=true 일 때만)
+        JobParametersDecide sortDecide = JobParametersDecide.ifTrue("sort");
+
+        //-sort=true 면 이름순으로 정렬한 파일을 먼저 만들고 저장
+        Flow flow = new FlowBuilder<Flow>("savePersonFlow")
+                .start(sortDecide)
+                .on(JobParametersDecide.CONTINUE.getName())
+                .to(this.sortPersonStep())
+                .next(this.savePersonStep(null, null))
+                .from(sortDecide)
+                .on("*")
+                .to(this.savePersonStep(null, null))
+                .build();
+
         return this.jobBuilderFactory.get("savePersonJob")
                 .incrementer(new RunIdIncrementer())
-                .start(this.savePersonStep(null))
+                .start(flow)
+                .end()
                 .listener(new SavePersonListener.SavePersonJobExecutionListener())
                 .listener(new SavePersonListener.SavePersonAnnotationJobExecutionListener())
+                .listener(sortPersonTasklet().cleanupListener())
                 .build();
     }
 
+    // person.csv 를 이름 기준으로 외부 정렬 (runSize 줄 이상은 임시 파일로 나눠서 정렬 후 병합)
+    // 재시작 때도 다시 실행해서, 이전 실행의 정렬 파일이 남아 있으면 그대로 쓰고 없어졌으면 다시 정렬
+    @Bean
+    public Step sortPersonStep() {
+        return this.stepBuilderFactory.get("sortPersonStep")
+                .tasklet(sortPersonTasklet())
+                .allowStartIfComplete(true)
+                .build();
+    }
+
+    // 정렬 key 는 reader 와 같은 tokenizer 로 읽은 이름 (따옴표 안의 쉼표도 reader 와 똑같이 처리)
+    private ExternalSortTasklet sortPersonTasklet() {
+        DelimitedLineTokenizer lineTokenizer = personLineTokenizer();
+        ExternalSortTasklet tasklet = new ExternalSortTasklet(
+                new ClassPathResource(PERSON_FILE), line -> lineTokenizer.tokenize(line).readString("name"), SORTED_PERSON_FILE);
+        tasklet.setEncoding("UTF-8");
+        tasklet.setLinesToSkip(1);
+        tasklet.setRunSize(sortRunSize);
+
+        return tasklet;
+    }
+
     //-allow_duplicate=false --job.name=savePersonJob  false일때 중복 제거
+    //-sort=true 를 같이 주면 정렬된 입력이라 중복 제거가 바로 앞 이름하고만 비교
     @Bean
     @JobScope
-    public Step savePersonStep(@Value("#{jobParameters[allow_duplicate]}") String allowDuplicate) throws Exception {
-        return this.stepBuilderFactory.get("savePersonStep")
+    public Step savePersonStep(@Value("#{jobParameters[allow_duplicate]}") String allowDuplicate,
+                               @Value("#{jobParameters[sort]}") String sort) throws Exception {
+        BisectingItemWriter<Person> bisectingItemWriter = bisectWrites ? bisectingItemWriter() : null;
+
+        FaultTolerantStepBuilder<Person, Person> stepBuilder = this.stepBuilderFactory.get("savePersonStep")
                 .<Person, Person>chunk(10)
-                .reader(itemReader())
-                .processor(itemProcessor(allowDuplicate))
-                .writer(itemWriter())
+                .reader(savePersonItemReader(null))
+                .processor(itemProcessor(allowDuplicate, Boolean.parseBoolean(sort)))
+                .writer(itemWriter(bisectingItemWriter == null ? jpaItemWriter() : bisectingItemWriter))
                 .listener(new SavePersonListener.SavePersonStepExecutionListener())
                 //faultTolerant 이 메서드를 설정하면 스킵과 리트라이 예외처리를 사용할수 있다
                 //NotFoundNameException 이 발생하면 3번까지 허용하고 그 다음부터 실패
                 .faultTolerant()
                 .skip(NotFoundNameException.class)
                 .skipLimit(3)
-                //NotFoundNameException 이 발생하면 3번까지 재시도
-                .retry(NotFoundNameException.class)
-                .retryLimit(3)
-                .build();
+                //검증 실패는 다시 해도 결과가 같고 DB 에 남긴 게 없으니 재시도 없이, 청크 롤백도 없이 그 아이템만 바로 건너뜀
+                //(noRollback 예외는 retry 를 설정해도 재시도되지 않아서 스텝의 retry 설정은 뺌,
+                // 이름이 비어 있을 때의 재시도는 PersonValidationRetryProcessor 안에서 3번)
+                .noRollback(NotFoundNameException.class)
+                //쓰기 실패로 청크를 다시 돌 때 processor 결과를 캐시해서 CompositeItemProcessor 를 다시 실행하지 않음
+                //(중복 검사 processor 가 같은 아이템을 두번 보고 중복으로 걸러내는 것도 막아줌)
+                .processorNonTransactional();
+
+        // -Dbatch.save-person.bisect-writes=true 이면 쓰기 실패한 청크를 반씩 나눠 다시 써서 문제 아이템만 건너뜀
+        // (스텝의 아이템 단위 재스캔 대신, 건너뛴 건은 스텝 skipLimit 3 안에서 writeSkipCount 로 남음)
+        if (bisectingItemWriter != null) {
+            stepBuilder.listener((ChunkListener) bisectingItemWriter);
+        }
+
+        return FlightRecorderChunkListener.attach(stepBuilder, flightRecorderEnabled).build();
     }
 
-    private ItemProcessor<? super Person, ? extends Person> itemProcessor(String allowDuplicate) throws Exception {
+    private ItemProcessor<? super Person, ? extends Person> itemProcessor(String allowDuplicate, boolean sorted) throws Exception {
         DuplicateValidationProcessor<Person> duplicateValidationProcessor =
-                new DuplicateValidationProcessor<>(Person::getName, Boolean.parseBoolean(allowDuplicate));
+                new DuplicateValidationProcessor<>(Person::getName, Boolean.parseBoolean(allowDuplicate), sorted);
 
         ItemProcessor<Person, Person> validationProcessor = item -> {
             if (item.isNotEmptyName()) {
@@ -93,18 +178,33 @@ public class SavePersonConfiguration {
     }
 
 
-    private ItemWriter<? super Person> itemWriter() throws Exception {
-    //   return items -> items.forEach(x -> log.info("저는 {} 입니다.", x.getName()));
+    // 청크 트랜잭션 안의 savepoint 로 나눠 쓰기 때문에 JPA 대신 같은 커넥션을 쓰는 JDBC insert
+    private BisectingItemWriter<Person> bisectingItemWriter() {
+        JdbcBatchItemWriter<Person> jdbcBatchItemWriter = new JdbcBatchItemWriterBuilder<Person>()
+                .dataSource(dataSource)
+                .itemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>())
+                .sql("insert into person(name, age, address) values(:name, :age, :address)")
+                .build();
+        jdbcBatchItemWriter.afterPropertiesSet();
+
+        return new BisectingItemWriter<>(jdbcBatchItemWriter, dataSource,
+                new LimitCheckingItemSkipPolicy(3, Map.of(PersistenceException.class, true, DataAccessException.class, true)));
+    }
 
-        JpaItemWriter<Person> jpaItemWriter = new JpaItemWriterBuilder<Person>()
+    private ItemWriter<Person> jpaItemWriter() {
+        return new JpaItemWriterBuilder<Person>()
                 .entityManagerFactory(entityManagerFactory)
                 .build();
+    }
+
+    private ItemWriter<Person> itemWriter(ItemWriter<Person> personItemWriter) throws Exception {
+    //   return items -> items.forEach(x -> log.info("저는 {} 입니다.", x.getName()));
 
-        ItemWriter<Person> logItemWriter = items -> log.info("person.size : {}", items.size());
+        ItemWriter<Person> logItemWriter = new ChunkSummaryItemWriter<>("savePersonStep", Person::getName);
 
         //위에 둘을 하나로 합쳐서 실행할수 있도록 도와주는 CompositeItemWriterBuilder 순서대로 진행되기 때문에 순서 주의
         CompositeItemWriter<Person> itemWriter = new CompositeItemWriterBuilder<Person>()
-                .delegates(jpaItemWriter, logItemWriter)
+                .delegates(personItemWriter, logItemWriter)
                 .build();
 
         itemWriter.afterPropertiesSet();
@@ -114,11 +214,13 @@ public class SavePersonConfiguration {
 
 
 
-    private ItemReader<? extends Person> itemReader() throws Exception {
+    // sortPersonStep 이 돌았으면 정렬된 파일을, 아니면 원본 person.csv 를 읽음
+    @Bean
+    @StepScope
+    public FlatFileItemReader<Person> savePersonItemReader(
+            @Value("#{jobExecutionContext['" + SORTED_PERSON_FILE + "']}") String sortedFile) throws Exception {
         DefaultLineMapper<Person> lineMapper = new DefaultLineMapper<>();
-        DelimitedLineTokenizer lineTokenizer = new DelimitedLineTokenizer();
-        lineTokenizer.setNames("name", "age", "address");
-        lineMapper.setLineTokenizer(lineTokenizer);
+        lineMapper.setLineTokenizer(personLineTokenizer());
         lineMapper.setFieldSetMapper(fieldSet -> new Person(
                 fieldSet.readString(0),
                 fieldSet.readString(1),
@@ -128,7 +230,9 @@ public class SavePersonConfiguration {
                 .name("savePersonItemReader")
                 .encoding("UTF-8")
                 .linesToSkip(1)
-                .resource(new ClassPathResource("person.csv"))
+                .resource(StringUtils.isEmpty(sortedFile)
+                        ? new ClassPathResource(PERSON_FILE)
+                        : new FileSystemResource(sortedFile))
                 .lineMapper(lineMapper)
                 .build();
 
@@ -136,5 +240,11 @@ public class SavePersonConfiguration {
         return itemReader;
     }
 
+    static DelimitedLineTokenizer personLineTokenizer() {
+        DelimitedLineTokenizer lineTokenizer = new DelimitedLineTokenizer();
+        lineTokenizer.setNames("name", "age", "address");
+        return lineTokenizer;
+    }
+
 
 }
\ No newline at end of file
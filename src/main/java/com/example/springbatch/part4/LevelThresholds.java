@@ -0,0 +1,95 @@
+package com.example.springbatch.part4;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+
+// 등급별 최소 주문 금액을 오름차순으로 정렬해 둔 기준표
+// 금액으로 등급을 찾을 때 if 비교를 이어 붙이는 대신 이진 탐색 한번으로 찾는다
+// -Dbatch.level.thresholds=SILVER:200000,GOLD:300000,VIP:500000 처럼 설정으로 기준 금액을 바꿀 수 있음
+public class LevelThresholds {
+
+    private final int[] amounts;
+    private final User.Level[] levels;
+    private final Map<User.Level, Integer> ranks = new EnumMap<>(User.Level.class);
+
+    private LevelThresholds(int[] amounts, User.Level[] levels) {
+        this.amounts = amounts;
+        this.levels = levels;
+
+        for (int i = 0; i < levels.length; i++) {
+            ranks.put(levels[i], i);
+        }
+    }
+
+    public static LevelThresholds of(Map<User.Level, Integer> minAmounts) {
+        User.Level[] levels = minAmounts.keySet().stream()
+                .sorted(Comparator.comparing(minAmounts::get))
+                .toArray(User.Level[]::new);
+
+        int[] amounts = Arrays.stream(levels)
+                .mapToInt(minAmounts::get)
+                .toArray();
+
+        if (levels.length == 0 || amounts[0] != 0) {
+            throw new IllegalArgumentException("최소 금액이 0 인 기본 등급이 있어야 합니다. " + minAmounts);
+        }
+
+        for (int i = 1; i < amounts.length; i++) {
+            if (amounts[i] == amounts[i - 1]) {
+                throw new IllegalArgumentException("등급 기준 금액이 중복됩니다. " + minAmounts);
+            }
+        }
+
+        return new LevelThresholds(amounts, levels);
+    }
+
+    // "SILVER:200000,GOLD:300000,VIP:500000", 적지 않은 등급은 기본 금액 사용
+    public static LevelThresholds parse(String value) {
+        Map<User.Level, Integer> minAmounts = new EnumMap<>(User.Level.class);
+
+        for (User.Level level : User.Level.values()) {
+            minAmounts.put(level, level.getMinAmount());
+        }
+
+        for (String token : value.split(",")) {
+            String[] pair = token.trim().split(":");
+
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("등급 기준 형식이 올바르지 않습니다. (LEVEL:amount) " + token);
+            }
+
+            minAmounts.put(User.Level.valueOf(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+
+        return of(minAmounts);
+    }
+
+    // totalAmount 이하인 기준 금액 중 가장 큰 등급
+    public User.Level levelOf(int totalAmount) {
+        int index = Arrays.binarySearch(amounts, totalAmount);
+
+        if (index < 0) {
+            //삽입 위치 바로 앞 (totalAmount 보다 작은 기준 중 가장 큰 것)
+            index = -index - 2;
+        }
+
+        return levels[Math.max(index, 0)];
+    }
+
+    // 현재 등급보다 높은 등급의 기준 금액을 채웠는지
+    public boolean availableLevelUp(User.Level level, int totalAmount) {
+        if (level == null) {
+            return false;
+        }
+
+        Integer rank = ranks.get(level);
+
+        if (rank == null || rank == levels.length - 1) {
+            return false;
+        }
+
+        return totalAmount >= amounts[rank + 1];
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.springbatch.part4;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 실제로 등급이 바뀐 회원 수를 스텝 실행마다 셈
+// 로컬 워커(batch.level-up.workers) 를 쓰면 스텝의 writeCount 는 읽은 건수라서 writer 에서 직접 셈
+// - writer 는 스텝 스레드(멀티 스레드 스텝이면 청크 스레드)에서 불리므로 StepSynchronizationManager 로 스텝 실행을 찾음
+// - afterStep 에서 스텝 ExecutionContext 에 LEVEL_UP_COUNT 로 남김 (재시작해도 이번 실행의 건수로 덮어씀)
+// - 파티션 워커 스텝도 같은 리스너를 붙이면 잡 리스너가 스텝 실행마다 합산
+public class LevelUpCounter implements StepExecutionListener {
+
+    public static final String LEVEL_UP_COUNT = "user.levelUpCount";
+
+    private final Map<Long, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        counts.put(stepExecution.getId(), new AtomicLong());
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        AtomicLong count = counts.remove(stepExecution.getId());
+        stepExecution.getExecutionContext().putLong(LEVEL_UP_COUNT, count == null ? 0 : count.get());
+        return null;
+    }
+
+    public void add(int levelUps) {
+        Long stepExecutionId = StepSynchronizationManager.getContext().getStepExecution().getId();
+        counts.computeIfAbsent(stepExecutionId, id -> new AtomicLong()).addAndGet(levelUps);
+    }
+}
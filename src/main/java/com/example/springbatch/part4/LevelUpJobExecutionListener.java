@@ -1,19 +1,27 @@
 package com.example.springbatch.part4;
 
+import com.example.springbatch.support.ChunkTimingListener;
+import com.example.springbatch.support.JobExecutionReport;
+import io.micrometer.core.instrument.util.StringUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
 
-import java.time.LocalDate;
-import java.util.Collection;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+// 잡이 끝나면 스텝별 건수/시간/느린 청크를 JSON 리포트로 남김
+// 처리 건수는 LevelUpCounter 가 스텝 ExecutionContext 에 남긴 등급 변경 건수의 합 (회원을 다시 조회하지 않음)
 @Slf4j
 public class LevelUpJobExecutionListener implements JobExecutionListener {
 
-    private final UserRepository userRepository;
+    private final ChunkTimingListener chunkTimings;
 
-    public LevelUpJobExecutionListener(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public LevelUpJobExecutionListener(ChunkTimingListener chunkTimings) {
+        this.chunkTimings = chunkTimings;
     }
 
     @Override
@@ -21,12 +29,34 @@ public class LevelUpJobExecutionListener implements JobExecutionListener {
 
     @Override
     public void afterJob(JobExecution jobExecution) {
-        Collection<User> users = userRepository.findAllByUpdatedDate(LocalDate.now());
+        long levelUpCount = jobExecution.getStepExecutions().stream()
+                .mapToLong(stepExecution -> stepExecution.getExecutionContext().getLong(LevelUpCounter.LEVEL_UP_COUNT, 0))
+                .sum();
 
         long time = jobExecution.getEndTime().getTime() - jobExecution.getStartTime().getTime();
 
         log.info("회원등급 업데이트 배치 프로그램");
         log.info("-------------------------------");
-        log.info("총 데이터 처리 {}건, 처리 시간 {}millis", users.size(), time);
+        log.info("총 데이터 처리 {}건, 처리 시간 {}millis", levelUpCount, time);
+
+        JobExecutionReport report = new JobExecutionReport(jobExecution, chunkTimings);
+        String json = report.toJson();
+        log.info("job report\n{}", json);
+
+        // -path 가 있으면 CSV 와 같은 위치에 리포트 파일도 남김
+        String path = jobExecution.getJobParameters().getString("path");
+        if (StringUtils.isNotEmpty(path)) {
+            write(Paths.get(path, jobExecution.getJobInstance().getJobName() + "_report_" + jobExecution.getId() + ".json"), json);
+        }
+
+        jobExecution.getStepExecutions().forEach(stepExecution -> chunkTimings.remove(stepExecution.getId()));
+    }
+
+    private void write(Path file, String json) {
+        try {
+            Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("잡 리포트 파일을 쓰지 못했습니다. {}", file, e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package com.example.springbatch.part4;
+
+import com.example.springbatch.part5.Orders;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// 증분 등급 갱신용 high-water mark (orders.id) 관리
+// -incremental=true 로 실행하면
+// 1. 이전에 성공한 실행의 job ExecutionContext 에서 마지막 orders.id(watermark) 를 찾고
+// 2. 지금 시점의 max(orders.id) 를 상한으로 잡아서 (TO)
+// 3. 스텝 ExecutionContext 에 넣어두면 reader 가 그 사이에 주문이 생긴 회원만 읽는다
+// 4. 스텝이 성공하면 TO 를 job ExecutionContext 에 남겨 다음 실행의 watermark 가 됨
+// orders.id 는 pooled 시퀀스(allocationSize 씩 미리 받아둠)라서 커밋 순서와 id 순서가 다름
+// 늦게 커밋된 주문이 이전 watermark 보다 작은 id 를 가질 수 있으므로
+// FROM 은 watermark - allocationSize * overlapBlocks 부터 다시 읽음 (동시에 주문을 쓰는 곳 수만큼 블록을 겹침)
+// 겹친 구간의 회원은 reader 의 distinct 로 한 번만 읽고, 등급 계산은 전체 주문 합계로 하므로 다시 처리해도 결과가 같음
+@Slf4j
+public class OrdersWatermarkListener implements StepExecutionListener {
+
+    public static final String INCREMENTAL = "incremental";
+    public static final String WATERMARK = "orders.watermark";
+    public static final String FROM = "orders.watermark.from";
+    public static final String TO = "orders.watermark.to";
+
+    //이전 실행을 찾을 때 몇 개의 JobInstance 까지 거슬러 올라갈지
+    private static final int LOOKBACK = 20;
+
+    private final JobExplorer jobExplorer;
+    private final JdbcTemplate jdbcTemplate;
+    private final long overlap;
+
+    public OrdersWatermarkListener(JobExplorer jobExplorer, DataSource dataSource, int overlapBlocks) {
+        this.jobExplorer = jobExplorer;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.overlap = (long) Orders.ID_ALLOCATION_SIZE * overlapBlocks;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        ExecutionContext stepContext = stepExecution.getExecutionContext();
+
+        if (!Boolean.parseBoolean(stepExecution.getJobParameters().getString(INCREMENTAL))) {
+            return;
+        }
+
+        //재시작이면 처음 실행할 때 잡은 범위를 그대로 사용
+        if (stepContext.containsKey(FROM)) {
+            return;
+        }
+
+        Long watermark = previousWatermark(stepExecution.getJobExecution());
+        Long to = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from orders", Long.class);
+
+        if (watermark == null) {
+            log.warn("최근 {}개 userJob 실행 중 성공한 watermark 가 없어 주문이 있는 회원 전체를 읽습니다.", LOOKBACK);
+        }
+
+        long from = watermark == null ? 0L : Math.max(0L, watermark - overlap);
+        stepContext.putLong(FROM, from);
+        stepContext.putLong(TO, to);
+
+        log.info("증분 등급 갱신 : orders.id {} 초과 {} 이하 (watermark {}, 겹침 {})", from, to, watermark, overlap);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ExecutionContext stepContext = stepExecution.getExecutionContext();
+
+        if (stepExecution.getStatus() == BatchStatus.COMPLETED && stepContext.containsKey(TO)) {
+            stepExecution.getJobExecution().getExecutionContext().putLong(WATERMARK, stepContext.getLong(TO));
+        }
+
+        return null;
+    }
+
+    // 최근 JobInstance 부터 성공한 실행 중 watermark 가 남아있는 것을 찾음, 없으면 null (전체)
+    private Long previousWatermark(JobExecution current) {
+        JobInstance currentInstance = current.getJobInstance();
+        List<JobInstance> instances = jobExplorer.getJobInstances(currentInstance.getJobName(), 0, LOOKBACK);
+
+        for (JobInstance instance : instances) {
+            if (instance.getId().equals(currentInstance.getId())) {
+                continue;
+            }
+
+            for (JobExecution execution : jobExplorer.getJobExecutions(instance)) {
+                if (execution.getStatus() == BatchStatus.COMPLETED
+                        && execution.getExecutionContext().containsKey(WATERMARK)) {
+                    return execution.getExecutionContext().getLong(WATERMARK);
+                }
+            }
+        }
+
+        return null;
+    }
+}
@@ -4,10 +4,13 @@ import com.example.springbatch.part5.Orders;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Formula;
 
 import javax.persistence.*;
 import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Getter
@@ -16,8 +19,11 @@ import java.util.Objects;
 @Table(name = "users")
 public class User {
 
+    // IDENTITY 는 insert 마다 키를 받아와야 해서 JDBC 배치가 꺼짐
+    // 시퀀스(없는 DB 는 테이블)에서 50개씩 미리 받아두고(pooled) insert 는 배치로
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     private String username;
@@ -25,30 +31,75 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Level level = Level.NORMAL;
 
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
-    @JoinColumn(name = "user_id")
+    // 연관관계 주인은 Orders.user : orders insert 에 user_id 가 같이 들어가서 별도 UPDATE 가 없음
+    // 등급 판단은 user_order_totals 합계를 쓰므로 주문 목록은 필요할 때만 읽음
+    @OneToMany(mappedBy = "user", cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     private List<Orders> orders;
 
     private LocalDate updatedDate;
 
+    @Transient
+    private Integer totalAmount;
+
+    // user_order_totals 에 유지되는 합계 (UserOrderTotalListener 가 주문 저장 시 갱신), 행이 없으면 null
+    @Formula("(select t.total_amount from user_order_totals t where t.user_id = id)")
+    private Integer materializedTotalAmount;
+
     @Builder
     private User(String username, List<Orders> orders) {
         this.username = username;
         this.orders = orders;
+        assignOrders();
+    }
+
+    // UserCodec 에서 힙 밖 버퍼의 값으로 복원할 때 사용 (주문 목록 대신 이미 계산한 합계를 가짐)
+    User(Long id, String username, Level level, LocalDate updatedDate, int totalAmount) {
+        this.id = id;
+        this.username = username;
+        this.level = level;
+        this.updatedDate = updatedDate;
+        this.totalAmount = totalAmount;
+    }
+
+    private void assignOrders() {
+        if (Objects.nonNull(this.orders)) {
+            this.orders.forEach(order -> order.assignUser(this));
+        }
     }
 
     public boolean availableLeveUp() {
-        return Level.availableLevelUp(this.getLevel(), this.getTotalAmount());
+        return availableLeveUp(Level.thresholds());
+    }
+
+    public boolean availableLeveUp(LevelThresholds thresholds) {
+        return thresholds.availableLevelUp(this.getLevel(), this.getTotalAmount());
     }
 
-    private int getTotalAmount() {
-        return this.orders.stream()
-                .mapToInt(Orders::getAmount)
-                .sum();
+    // 프로세서와 levelUp() 에서 두 번 부르기 때문에 한번 계산한 값은 보관
+    // 저장된 회원은 user_order_totals 합계만 씀 (행이 없으면 주문이 없는 회원), 주문 목록(LAZY)은 건드리지 않음
+    // 아직 저장하지 않은 회원만 주문 목록을 합산
+    public int getTotalAmount() {
+        if (Objects.isNull(this.totalAmount)) {
+            if (Objects.nonNull(this.materializedTotalAmount)) {
+                this.totalAmount = this.materializedTotalAmount;
+            } else if (Objects.isNull(this.id) && Objects.nonNull(this.orders)) {
+                this.totalAmount = this.orders.stream()
+                        .mapToInt(Orders::getAmount)
+                        .sum();
+            } else {
+                this.totalAmount = 0;
+            }
+        }
+
+        return this.totalAmount;
     }
 
     public Level levelUp() {
-        Level nextLevel = Level.getNextLevel(this.getTotalAmount());
+        return levelUp(Level.thresholds());
+    }
+
+    public Level levelUp(LevelThresholds thresholds) {
+        Level nextLevel = thresholds.levelOf(this.getTotalAmount());
 
         this.level = nextLevel;
         this.updatedDate = LocalDate.now();
@@ -56,50 +107,38 @@ public class User {
         return nextLevel;
     }
 
+    // minAmount : 해당 등급이 되기 위한 최소 주문 금액 (기본값, LevelThresholds 로 바꿀 수 있음)
     public enum Level {
-        VIP(500_000, null),
-        GOLD(500_000, VIP),
-        SILVER(300_000, GOLD),
-        NORMAL(200_000, SILVER);
-
-        private final int nextAmount;
-        private final Level nextLevel;
+        VIP(500_000),
+        GOLD(300_000),
+        SILVER(200_000),
+        NORMAL(0);
 
-        Level(int nextAmount, Level nextLevel) {
-            this.nextAmount = nextAmount;
-            this.nextLevel = nextLevel;
-        }
-
-        private static boolean availableLevelUp(Level level, int totalAmount) {
-            if (Objects.isNull(level)) {
-                return false;
-            }
+        private static final LevelThresholds DEFAULT_THRESHOLDS = LevelThresholds.of(defaultAmounts());
 
-            if (Objects.isNull(level.nextLevel)) {
-                return false;
-            }
+        private final int minAmount;
 
-            return totalAmount >= level.nextAmount;
+        Level(int minAmount) {
+            this.minAmount = minAmount;
         }
 
-        private static Level getNextLevel(int totalAmount) {
-            if (totalAmount >= Level.VIP.nextAmount) {
-                return VIP;
-            }
+        public int getMinAmount() {
+            return minAmount;
+        }
 
-            if (totalAmount >= Level.GOLD.nextAmount) {
-                return GOLD.nextLevel;
-            }
+        // 기본 등급 기준표 (금액 오름차순)
+        public static LevelThresholds thresholds() {
+            return DEFAULT_THRESHOLDS;
+        }
 
-            if (totalAmount >= Level.SILVER.nextAmount) {
-                return SILVER.nextLevel;
-            }
+        private static Map<Level, Integer> defaultAmounts() {
+            Map<Level, Integer> amounts = new EnumMap<>(Level.class);
 
-            if (totalAmount >= Level.NORMAL.nextAmount) {
-                return NORMAL.nextLevel;
+            for (Level level : values()) {
+                amounts.put(level, level.minAmount);
             }
 
-            return NORMAL;
+            return amounts;
         }
     }
-}
\ No newline at end of file
+}
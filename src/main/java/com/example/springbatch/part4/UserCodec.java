@@ -0,0 +1,28 @@
+package com.example.springbatch.part4;
+
+import com.example.springbatch.support.ItemCodec;
+
+import java.nio.ByteBuffer;
+
+// 등급 판단이 끝난 회원을 힙 밖 버퍼에 보관할 때 사용
+// 주문 목록은 싣지 않고 processor 에서 계산한 합계만 보관 (writer 는 합계와 등급만 씀)
+public class UserCodec implements ItemCodec<User> {
+
+    @Override
+    public void encode(User item, ByteBuffer out) {
+        out.putLong(item.getId());
+        ItemCodec.putString(out, item.getUsername());
+        out.put((byte) item.getLevel().ordinal());
+        ItemCodec.putDate(out, item.getUpdatedDate());
+        out.putInt(item.getTotalAmount());
+    }
+
+    @Override
+    public User decode(ByteBuffer in) {
+        return new User(in.getLong(),
+                ItemCodec.getString(in),
+                User.Level.values()[in.get()],
+                ItemCodec.getDate(in),
+                in.getInt());
+    }
+}
@@ -2,6 +2,27 @@ package com.example.springbatch.part4;
 
 import com.example.springbatch.part5.JobParametersDecide;
 import com.example.springbatch.part5.OrderStatistics;
+import com.example.springbatch.part5.OrderStatisticsCodec;
+import com.example.springbatch.part5.OrderStatisticsColumnarItemWriter;
+import com.example.springbatch.part5.OrderStatisticsRowMapper;
+import com.example.springbatch.support.BatchSupportConfiguration;
+import com.example.springbatch.support.BufferedFileItemWriter;
+import com.example.springbatch.support.ChunkManagerItemWriter;
+import com.example.springbatch.support.ChunkTimingListener;
+import com.example.springbatch.support.ConnectionPoolGovernor;
+import com.example.springbatch.support.ExportFormat;
+import com.example.springbatch.support.FileWriterOptions;
+import com.example.springbatch.support.FlightRecorderChunkListener;
+import com.example.springbatch.support.GzipLineItemWriter;
+import com.example.springbatch.support.InMemoryChunkChannel;
+import com.example.springbatch.support.LocalChunkWorkerPool;
+import com.example.springbatch.support.OffHeapBufferingItemProcessor;
+import com.example.springbatch.support.OffHeapItem;
+import com.example.springbatch.support.OffHeapItemBuffer;
+import com.example.springbatch.support.OffHeapItemWriter;
+import com.example.springbatch.support.VirtualThreadTaskExecutor;
+import com.example.springbatch.support.WeightedPartitionHandler;
+import io.micrometer.core.instrument.util.StringUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
@@ -9,7 +30,10 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
@@ -25,72 +49,134 @@ import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
-import java.time.LocalDate;
+import java.time.Duration;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 @Configuration
 @Slf4j
 @RequiredArgsConstructor
+@Import(BatchSupportConfiguration.class)
 public class UserConfiguration {
 
     private final String JOB_NAME = "userJob";
     private final int CHUNK = 1000;
+    private final int OFF_HEAP_SEGMENT_SIZE = 4 * 1024 * 1024;
+    private final int OFF_HEAP_WINDOW_SIZE = 100;
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final UserRepository userRepository;
     private final EntityManagerFactory entityManagerFactory;
     private final DataSource dataSource;
     private final TaskExecutor taskExecutor;
+    private final ConnectionPoolGovernor connectionPoolGovernor;
+    private final JobExplorer jobExplorer;
+    private final FileWriterOptions fileWriterOptions;
+
+    // -Dbatch.task-executor.virtual-threads=true 이면 userLevelUpStep 을 가상 스레드로 실행
+    @Value("${batch.task-executor.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    // -Dbatch.level-up.workers=4 이면 등급 판단을 로컬 워커 4개에 나눠 맡김 (0 이면 사용 안 함)
+    @Value("${batch.level-up.workers:0}")
+    private int levelUpWorkers;
+
+    // -Dbatch.off-heap-buffer.enabled=true 이면 userLevelUpStep, orderStatisticsStep 청크를 힙 밖 버퍼에 보관
+    @Value("${batch.off-heap-buffer.enabled:false}")
+    private boolean offHeapBuffer;
+
+    // -Dbatch.level.thresholds=SILVER:200000,GOLD:300000,VIP:500000 등급 기준 금액 변경
+    @Value("${batch.level.thresholds:}")
+    private String levelThresholds;
+
+    // -Dbatch.jfr.enabled=true 면 스텝에 JFR 청크 이벤트 리스너를 붙임
+    @Value("${batch.jfr.enabled:false}")
+    private boolean flightRecorderEnabled;
+
+    // -incremental=true 일 때 이전 watermark 에서 orders 시퀀스 블록(allocationSize) 몇 개만큼 겹쳐 다시 읽을지
+    // 동시에 주문을 저장하는 인스턴스(커넥션) 수 이상으로 설정
+    @Value("${batch.level-up.watermark-overlap-blocks:4}")
+    private int watermarkOverlapBlocks;
+
+    // -shards 로 나눠 실행할 때 동시에 돌릴 shard 수 (커넥션 풀에서 쓸 수 있는 수를 넘지 않음)
+    @Value("${batch.level-up.tenant-concurrency:4}")
+    private int tenantConcurrency;
+
+
 // -path=/users/PC/git/spring-batch/output/ -date=2020-11 --job.name=userJob
 
 // spring-batch> ./gradlew clean jar build -x test 로 jar 생성
 // cd build/libs 에 spring-batch-0.0.1-SNAPSHOT.jar 생성
 // java -jar spring-batch-0.0.1-SNAPSHOT.jar --job.name=userJob -date=2020-11 -path=/users/PC/git/spring-batch/output/
-
-
     @Bean(JOB_NAME)
     public Job userJob() throws Exception {
         return jobBuilderFactory.get("userJob")
                 .incrementer(new RunIdIncrementer())
                 .start(saveUserStep())
-                .next(userLevelUpStep())
-                .listener(new LevelUpJobExecutionListener(userRepository))
+                .next(userLevelUpStep(null, null))
+                .listener(new LevelUpJobExecutionListener(chunkTimingListener()))
                 // -date=2020-11 --job.name=userJob 의 date 파라메타 값이 있는지 검사
                 .next(new JobParametersDecide("date"))
                 //date 를 넣어서 검증후 리턴값이 CONTINUE 인지 확인
                 .on(JobParametersDecide.CONTINUE.getName())
                 //위에 검증(CONTINUE)면 아래 to 를 실행
-                .to(orderStatisticsStep(null, null))
+                .to(orderStatisticsStep(null, null, null))
                 .build()
                 .build();
     }
 
 
     // -date=2020-11 --job.name=userJob
+    // -format=csv.gz 또는 -format=columnar 로 내보내기 형식 선택 (기본 csv)
     @Bean(JOB_NAME + "_orderStatisticsStep")
     @JobScope
     public Step orderStatisticsStep(@Value("#{jobParameters[date]}") String date,
-                                    @Value("#{jobParameters[path]}") String path) throws Exception {
-        return this.stepBuilderFactory.get(JOB_NAME + "_orderStatisticsStep")
+                                    @Value("#{jobParameters[path]}") String path,
+                                    @Value("#{jobParameters[format]}") String format) throws Exception {
+        ExportFormat exportFormat = ExportFormat.of(format);
+
+        if (offHeapBuffer) {
+            //청크 아이템을 힙 밖에 직렬화해서 들고 있다가 쓰기 직전에 조금씩 꺼냄
+            OffHeapItemBuffer<OrderStatistics> buffer = new OffHeapItemBuffer<>(new OrderStatisticsCodec(), OFF_HEAP_SEGMENT_SIZE);
+
+            return FlightRecorderChunkListener.attach(this.stepBuilderFactory.get(JOB_NAME + "_orderStatisticsStep")
+                    .<OrderStatistics, OffHeapItem<OrderStatistics>>chunk(CHUNK)
+                    .reader(orderStatisticsItemReader(date))
+                    .processor(new OffHeapBufferingItemProcessor<>(buffer))
+                    .writer(new OffHeapItemWriter<>(buffer, orderStatisticsItemWriter(date, path, exportFormat), OFF_HEAP_WINDOW_SIZE))
+                    .listener(chunkTimingListener()), flightRecorderEnabled)
+                    .build();
+        }
+
+        return FlightRecorderChunkListener.attach(this.stepBuilderFactory.get(JOB_NAME + "_orderStatisticsStep")
                 .<OrderStatistics, OrderStatistics>chunk(CHUNK)
                 .reader(orderStatisticsItemReader(date))
-                .writer(orderStatisticsItemWriter(date, path))
+                .writer(orderStatisticsItemWriter(date, path, exportFormat))
+                .listener(chunkTimingListener()), flightRecorderEnabled)
                 .build();
     }
 
-    // CSV 파일 생성
-    private ItemWriter<? super OrderStatistics> orderStatisticsItemWriter(String date, String path) throws Exception {
+    // CSV 파일 생성 (format 에 따라 gzip CSV, 컬럼 바이너리)
+    private ItemWriter<? super OrderStatistics> orderStatisticsItemWriter(String date, String path, ExportFormat format) throws Exception {
         YearMonth yearMonth = YearMonth.parse(date);
-        String fileName = yearMonth.getYear() + "년_" + yearMonth.getMonthValue() + "월_일별_주문_금액.csv";
+        String fileName = yearMonth.getYear() + "년_" + yearMonth.getMonthValue() + "월_일별_주문_금액" + format.getExtension();
+
+        if (format == ExportFormat.COLUMNAR) {
+            return new OrderStatisticsColumnarItemWriter(
+                    JOB_NAME + "_orderStatisticsItemWriter", new FileSystemResource(path + fileName));
+        }
 
         //매핑 설정
         BeanWrapperFieldExtractor<OrderStatistics> fieldExtractor = new BeanWrapperFieldExtractor<>();
@@ -101,6 +187,25 @@ public class UserConfiguration {
         lineAggregator.setDelimiter(",");
         lineAggregator.setFieldExtractor(fieldExtractor);
 
+        if (format == ExportFormat.CSV_GZIP) {
+            GzipLineItemWriter<OrderStatistics> itemWriter = new GzipLineItemWriter<>(
+                    JOB_NAME + "_orderStatisticsItemWriter", new FileSystemResource(path + fileName), lineAggregator);
+            itemWriter.setEncoding("UTF-8");
+            itemWriter.setHeaderCallback(writer -> writer.write("total_amoun,date"));
+
+            return itemWriter;
+        }
+
+        //batch.file-writer.buffered=true 면 큰 버퍼 + FileChannel 로 쓰는 writer 사용
+        if (fileWriterOptions.isBuffered()) {
+            BufferedFileItemWriter<OrderStatistics> itemWriter = new BufferedFileItemWriter<>(
+                    JOB_NAME + "_orderStatisticsItemWriter", new FileSystemResource(path + fileName), lineAggregator);
+            itemWriter.setEncoding("UTF-8");
+            itemWriter.setHeaderCallback(writer -> writer.write("total_amoun,date"));
+
+            return fileWriterOptions.configure(itemWriter);
+        }
+
         FlatFileItemWriter<OrderStatistics> itemWriter = new FlatFileItemWriterBuilder<OrderStatistics>()
                                         //path는 파일 저장 위치 +  fileName 으로 파일 저장
                 .resource(new FileSystemResource(path + fileName))
@@ -133,10 +238,7 @@ public class UserConfiguration {
 
         JdbcPagingItemReader<OrderStatistics> itemReader = new JdbcPagingItemReaderBuilder<OrderStatistics>()
                 .dataSource(this.dataSource)
-                .rowMapper((resultSet, i) -> OrderStatistics.builder()
-                        .amount(resultSet.getString(1))
-                        .date(LocalDate.parse(resultSet.getString(2), DateTimeFormatter.ISO_DATE))
-                        .build())
+                .rowMapper(new OrderStatisticsRowMapper())
                 .pageSize(CHUNK)
                 .name(JOB_NAME + "_orderStatisticsItemReader")
                 .selectClause("sum(amount), created_date")
@@ -150,39 +252,215 @@ public class UserConfiguration {
         return itemReader;
     }
 
+    // 잡 리포트용 : 스텝마다 가장 느린 청크 5개
+    @Bean(JOB_NAME + "_chunkTimingListener")
+    public ChunkTimingListener chunkTimingListener() {
+        return new ChunkTimingListener(5);
+    }
+
+    // 등급이 바뀐 회원 수 (잡 리스너의 총 데이터 처리 건수)
+    @Bean(JOB_NAME + "_levelUpCounter")
+    public LevelUpCounter levelUpCounter() {
+        return new LevelUpCounter();
+    }
+
     @Bean(JOB_NAME + "_saveUserStep")
     public Step saveUserStep() {
         return stepBuilderFactory.get(JOB_NAME + "_saveUserStep")
                 .tasklet(new SaveUserTasklet(userRepository))
+                .listener(chunkTimingListener())
                 .build();
     }
 
+    // -shards=8 이면 회원을 id 구간 8개로 나눠 shard(테넌트)마다 파티션을 만들고 동시에 실행
+    // -tenants=0,3 을 같이 주면 그 shard 만 실행, -shards 가 없으면 기존처럼 한 스텝에서 전부 처리
     @Bean(JOB_NAME + "_userLevelUpStep")
-    public Step userLevelUpStep() throws Exception {
+    @JobScope
+    public Step userLevelUpStep(@Value("#{jobParameters[shards]}") String shards,
+                                @Value("#{jobParameters[tenants]}") String tenants) throws Exception {
+        if (StringUtils.isNotEmpty(shards)) {
+            return userLevelUpPartitionStep(UserShardPartitioner.parseShards(shards), tenants);
+        }
+
+        if (offHeapBuffer && levelUpWorkers == 0) {
+            //등급을 올릴 회원만 힙 밖에 직렬화해서 들고 있다가 쓰기 직전에 조금씩 꺼냄
+            OffHeapItemBuffer<User> buffer = new OffHeapItemBuffer<>(new UserCodec(), OFF_HEAP_SEGMENT_SIZE);
+
+            return levelUpStep(stepBuilderFactory.get(JOB_NAME + "_userLevelUpStep")
+                    .listener(new OrdersWatermarkListener(jobExplorer, dataSource, watermarkOverlapBlocks))
+                    .<User, OffHeapItem<User>>chunk(CHUNK)
+                    .reader(itemReader(null, null))
+                    .processor(offHeapItemProcessor(buffer))
+                    .writer(new OffHeapItemWriter<>(buffer, offHeapItemWriter(), OFF_HEAP_WINDOW_SIZE)));
+        }
+
+        if (offHeapBuffer) {
+            log.warn("batch.level-up.workers 를 사용하면 userLevelUpStep 은 힙 밖 버퍼를 쓰지 않습니다. (워커에 아이템을 넘겨야 함)");
+        }
+
+        SimpleStepBuilder<User, User> stepBuilder = stepBuilderFactory.get(JOB_NAME + "_userLevelUpStep")
+                .listener(new OrdersWatermarkListener(jobExplorer, dataSource, watermarkOverlapBlocks))
+                .<User, User>chunk(CHUNK)
+                .reader(itemReader(null, null));
+
+        if (levelUpWorkers > 0) {
+            //매니저(스텝)는 읽기와 쓰기만, 등급 판단(processor)은 워커 스레드에서
+            InMemoryChunkChannel<User, User> channel = new InMemoryChunkChannel<>();
+            stepBuilder.writer(new ChunkManagerItemWriter<>(channel, itemWriter(),
+                            Math.max(1, CHUNK / levelUpWorkers), Duration.ofMinutes(5)))
+                    .listener(new LocalChunkWorkerPool<>(JOB_NAME + "_levelUp", levelUpWorkers, channel, itemProcessor()));
+        } else {
+            stepBuilder.processor(itemProcessor())
+                    .writer(itemWriter());
+        }
+
+        return levelUpStep(stepBuilder);
+    }
+
+    private <O> Step levelUpStep(SimpleStepBuilder<User, O> stepBuilder) {
+        return FlightRecorderChunkListener.attach(stepBuilder, flightRecorderEnabled)
+                .listener(chunkTimingListener())
+                .listener(levelUpCounter())
+                //taskExecutor 를 주입해 멀티 스레드 스텝 작동
+                .taskExecutor(levelUpTaskExecutor())
+                //8개의 스레드로 정크를 처리  (기본값은 4), 가상 스레드면 커넥션 풀 크기만큼
+                .throttleLimit(levelUpConcurrency())
+                .build();
+    }
+
+    // shard 마다 자기 reader/writer 를 가진 워커 스텝을 실행
+    // 회원이 많은 shard 부터 시작하고, 동시 실행 수는 tenantConcurrency 와 커넥션 풀 permit 으로 제한
+    private Step userLevelUpPartitionStep(int shards, String tenants) throws Exception {
+        UserShardPartitioner partitioner = new UserShardPartitioner(dataSource, shards, tenants);
+        WeightedPartitionHandler partitionHandler = new WeightedPartitionHandler(userLevelUpWorkerStep(), tenantTaskExecutor());
+
         return stepBuilderFactory.get(JOB_NAME + "_userLevelUpStep")
+                .listener(new OrdersWatermarkListener(jobExplorer, dataSource, watermarkOverlapBlocks))
+                .listener(partitioner)
+                .partitioner(JOB_NAME + "_userLevelUpWorkerStep", partitioner)
+                .partitionHandler(partitionHandler)
+                .build();
+    }
+
+    // shard 하나는 한 스레드에서 순서대로 처리 (동시성은 shard 단위로만)
+    @Bean(JOB_NAME + "_userLevelUpWorkerStep")
+    public Step userLevelUpWorkerStep() throws Exception {
+        if (offHeapBuffer) {
+            //shard 들이 한 버퍼를 같이 씀 (segment 는 다 쓴 것부터 재사용)
+            OffHeapItemBuffer<User> buffer = new OffHeapItemBuffer<>(new UserCodec(), OFF_HEAP_SEGMENT_SIZE);
+
+            return FlightRecorderChunkListener.attach(stepBuilderFactory.get(JOB_NAME + "_userLevelUpWorkerStep")
+                    .<User, OffHeapItem<User>>chunk(CHUNK)
+                    .reader(shardItemReader(null, null, null, null))
+                    .processor(offHeapItemProcessor(buffer))
+                    .writer(new OffHeapItemWriter<>(buffer, offHeapItemWriter(), OFF_HEAP_WINDOW_SIZE)), flightRecorderEnabled)
+                    .listener(chunkTimingListener())
+                    .listener(levelUpCounter())
+                    .build();
+        }
+
+        return FlightRecorderChunkListener.attach(stepBuilderFactory.get(JOB_NAME + "_userLevelUpWorkerStep")
                 .<User, User>chunk(CHUNK)
-                .reader(itemReader())
+                .reader(shardItemReader(null, null, null, null))
                 .processor(itemProcessor())
-                .writer(itemWriter())
-                //taskExecutor 를 주입해 멀티 스레드 스텝 작동
-                .taskExecutor(taskExecutor)
-                //8개의 스레드로 정크를 처리  (기본값은 4)
-                .throttleLimit(8)
+                .writer(itemWriter()), flightRecorderEnabled)
+                .listener(chunkTimingListener())
+                .listener(levelUpCounter())
                 .build();
     }
 
+    private TaskExecutor tenantTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(JOB_NAME + "-tenant-");
+        executor.setConcurrencyLimit(connectionPoolGovernor.concurrencyFor(tenantConcurrency));
+
+        return connectionPoolGovernor.govern(JOB_NAME + "_userLevelUpWorkerStep", executor);
+    }
+
+    // 청크마다 커넥션 풀 permit 을 얻은 뒤 실행되도록 governor 로 감싼다
+    private TaskExecutor levelUpTaskExecutor() {
+        if (virtualThreads && !VirtualThreadTaskExecutor.isSupported()) {
+            log.warn("가상 스레드를 지원하지 않는 JDK 입니다. userLevelUpStep 은 플랫폼 스레드로 실행합니다. (java.version={})",
+                    System.getProperty("java.version"));
+        }
+
+        TaskExecutor executor = useVirtualThreads()
+                ? new VirtualThreadTaskExecutor(JOB_NAME + "-vt-", levelUpConcurrency())
+                : taskExecutor;
+
+        return connectionPoolGovernor.govern(JOB_NAME + "_userLevelUpStep", executor);
+    }
+
+    // 가상 스레드는 스레드 수가 아니라 커넥션 수가 한계라서 풀에서 쓸 수 있는 만큼
+    // 플랫폼 스레드는 8개, 단 풀에서 쓸 수 있는 커넥션 수를 넘지 않음
+    private int levelUpConcurrency() {
+        if (useVirtualThreads()) {
+            return connectionPoolGovernor.getAvailableConnections();
+        }
+
+        return connectionPoolGovernor.concurrencyFor(8);
+    }
+
+    // 옵션을 켜도 JDK 가 가상 스레드를 지원하지 않으면 기존 taskExecutor + 8 스레드 설정을 그대로 사용
+    private boolean useVirtualThreads() {
+        return virtualThreads && VirtualThreadTaskExecutor.isSupported();
+    }
+
+    // 등급이 실제로 바뀐 회원 수는 levelUpCounter 에 더함
     private ItemWriter<User> itemWriter() {
-        return users ->
-            users.forEach(user -> {
-                user.levelUp();
+        LevelThresholds thresholds = levelThresholds();
+        LevelUpCounter levelUpCounter = levelUpCounter();
+
+        return users -> {
+            int levelUps = 0;
+            for (User user : users) {
+                User.Level before = user.getLevel();
+                if (user.levelUp(thresholds) != before) {
+                    levelUps++;
+                }
                 userRepository.save(user);
-            });
+            }
+            levelUpCounter.add(levelUps);
+        };
+    }
+
+    // 등급을 올릴 회원만 힙 밖 버퍼로 옮김 (합계는 여기서 계산해 같이 보관)
+    private ItemProcessor<User, OffHeapItem<User>> offHeapItemProcessor(OffHeapItemBuffer<User> buffer) {
+        ItemProcessor<? super User, ? extends User> itemProcessor = itemProcessor();
+        OffHeapBufferingItemProcessor<User> bufferingItemProcessor = new OffHeapBufferingItemProcessor<>(buffer);
 
+        return user -> {
+            User candidate = itemProcessor.process(user);
+            return candidate == null ? null : bufferingItemProcessor.process(candidate);
+        };
+    }
+
+    // 힙 밖에서 꺼낸 회원은 영속성 컨텍스트에 없어서 save(merge) 하면 회원과 주문을 다시 조회함
+    // 바뀌는 컬럼(level, updated_date)만 청크 트랜잭션의 커넥션으로 batch update
+    private ItemWriter<User> offHeapItemWriter() {
+        LevelThresholds thresholds = levelThresholds();
+        LevelUpCounter levelUpCounter = levelUpCounter();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        return users -> {
+            List<Object[]> updates = new ArrayList<>(users.size());
+            int levelUps = 0;
+            for (User user : users) {
+                User.Level before = user.getLevel();
+                if (user.levelUp(thresholds) != before) {
+                    levelUps++;
+                }
+                updates.add(new Object[] {user.getLevel().name(), user.getUpdatedDate(), user.getId()});
+            }
+            jdbcTemplate.batchUpdate("update users set level = ?, updated_date = ? where id = ?", updates);
+            levelUpCounter.add(levelUps);
+        };
     }
 
     private ItemProcessor<? super User, ? extends User> itemProcessor() {
+        LevelThresholds thresholds = levelThresholds();
+
         return user -> {
-            if (user.availableLeveUp()) {
+            if (user.availableLeveUp(thresholds)) {
                 return user;
             }
             return null;
@@ -190,18 +468,75 @@ public class UserConfiguration {
     }
 
 
-    private ItemReader<User> itemReader() throws Exception {
-      JpaPagingItemReader<User> itemReader = new JpaPagingItemReaderBuilder<User>()
+    // 설정이 없으면 User.Level 의 기본 기준 금액
+    private LevelThresholds levelThresholds() {
+        if (StringUtils.isEmpty(levelThresholds)) {
+            return User.Level.thresholds();
+        }
+
+        return LevelThresholds.parse(levelThresholds);
+    }
+
+    // 증분 모드(-incremental=true)면 OrdersWatermarkListener 가 잡아둔 범위에 주문이 생긴 회원만 읽음
+    @Bean(JOB_NAME + "_userItemReader")
+    @StepScope
+    public JpaPagingItemReader<User> itemReader(
+            @Value("#{stepExecutionContext['" + OrdersWatermarkListener.FROM + "']}") Long fromOrderId,
+            @Value("#{stepExecutionContext['" + OrdersWatermarkListener.TO + "']}") Long toOrderId) throws Exception {
+      JpaPagingItemReaderBuilder<User> builder = new JpaPagingItemReaderBuilder<User>()
                 .queryString("select u from User u")
                 .entityManagerFactory(entityManagerFactory)
                 //페이지 사이즈는 정크 사이즈랑 보통 동일 하게 함
                 .pageSize(CHUNK)
-                .name(JOB_NAME + "_userItemReader")
-                .build();
+                .name(JOB_NAME + "_userItemReader");
+
+      if (Objects.nonNull(fromOrderId) && Objects.nonNull(toOrderId)) {
+          Map<String, Object> parameters = new HashMap<>();
+          parameters.put("fromOrderId", fromOrderId);
+          parameters.put("toOrderId", toOrderId);
+
+          builder.queryString("select distinct u from User u join u.orders o "
+                          + "where o.id > :fromOrderId and o.id <= :toOrderId order by u.id")
+                  .parameterValues(parameters);
+      }
 
+      JpaPagingItemReader<User> itemReader = builder.build();
       itemReader.afterPropertiesSet();
       return itemReader;
     }
 
+    // 파티션(shard) 하나의 id 구간만 읽음, 증분 모드면 partitioner 가 넘겨준 주문 범위도 같이 적용
+    // PK 범위 조건이라 페이지마다 그 구간 안에서만 읽음
+    @Bean(JOB_NAME + "_userShardItemReader")
+    @StepScope
+    public JpaPagingItemReader<User> shardItemReader(
+            @Value("#{stepExecutionContext['" + UserShardPartitioner.MIN_ID + "']}") Long minId,
+            @Value("#{stepExecutionContext['" + UserShardPartitioner.MAX_ID + "']}") Long maxId,
+            @Value("#{stepExecutionContext['" + OrdersWatermarkListener.FROM + "']}") Long fromOrderId,
+            @Value("#{stepExecutionContext['" + OrdersWatermarkListener.TO + "']}") Long toOrderId) throws Exception {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("minId", minId);
+        parameters.put("maxId", maxId);
+
+        String queryString = "select u from User u where u.id between :minId and :maxId order by u.id";
+
+        if (Objects.nonNull(fromOrderId) && Objects.nonNull(toOrderId)) {
+            parameters.put("fromOrderId", fromOrderId);
+            parameters.put("toOrderId", toOrderId);
+            queryString = "select distinct u from User u join u.orders o "
+                    + "where u.id between :minId and :maxId and o.id > :fromOrderId and o.id <= :toOrderId order by u.id";
+        }
+
+        JpaPagingItemReader<User> itemReader = new JpaPagingItemReaderBuilder<User>()
+                .queryString(queryString)
+                .parameterValues(parameters)
+                .entityManagerFactory(entityManagerFactory)
+                .pageSize(CHUNK)
+                .name(JOB_NAME + "_userShardItemReader")
+                .build();
+        itemReader.afterPropertiesSet();
+        return itemReader;
+    }
+
 
 }
@@ -0,0 +1,27 @@
+package com.example.springbatch.part4;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+// 회원별 주문 금액 합계 (orders 를 매번 합산하지 않도록 배치가 유지하는 요약 테이블)
+// 값은 주문을 저장할 때 UserOrderTotalListener 가 갱신하고 User 는 @Formula 로 읽기만 함
+@Getter
+@Entity
+@NoArgsConstructor
+@Table(name = "user_order_totals")
+public class UserOrderTotal {
+
+    @Id
+    private Long userId;
+
+    private int totalAmount;
+
+    public UserOrderTotal(Long userId, int totalAmount) {
+        this.userId = userId;
+        this.totalAmount = totalAmount;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.springbatch.part4;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+// UserOrderTotalListener 를 Hibernate 이벤트에 등록
+// META-INF/services/org.hibernate.integrator.spi.Integrator 로 등록되어 SessionFactory 를 만들 때 자동으로 적용
+public class UserOrderTotalIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        UserOrderTotalListener listener = new UserOrderTotalListener();
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
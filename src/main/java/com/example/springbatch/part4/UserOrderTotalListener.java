@@ -0,0 +1,110 @@
+package com.example.springbatch.part4;
+
+import com.example.springbatch.part5.Orders;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+// Orders 가 insert/update/delete 될 때 user_order_totals 를 같이 갱신하는 Hibernate 리스너
+// 주문을 어디서 저장하든(cascade, repository) 합계가 맞도록 주문 쪽에서 유지
+// - 세션(트랜잭션)마다 회원별 증감을 모아뒀다가 커밋 직전(flush 이후)에 세션의 커넥션으로 한번에 batch 실행
+// - 롤백되면 모은 증감은 버림
+// JPQL/JDBC 로 orders 를 직접 바꾸는 경우는 잡히지 않으므로 UserOrderTotalUpdater 를 직접 호출해야 함
+@Slf4j
+public class UserOrderTotalListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final Map<SharedSessionContractImplementor, Changes> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Orders) {
+            Orders order = (Orders) event.getEntity();
+            add(event.getSession(), order.getUser(), order.getAmount());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Orders)) {
+            return;
+        }
+
+        if (event.getOldState() == null) {
+            log.warn("이전 값을 모르는 주문 변경이라 user_order_totals 를 갱신하지 못했습니다. orders.id={}", event.getId());
+            return;
+        }
+
+        int userIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("user");
+        int amountIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("amount");
+
+        add(event.getSession(), (User) event.getOldState()[userIndex], -(int) event.getOldState()[amountIndex]);
+        add(event.getSession(), (User) event.getState()[userIndex], (int) event.getState()[amountIndex]);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Orders) {
+            Orders order = (Orders) event.getEntity();
+            add(event.getSession(), order.getUser(), -order.getAmount());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void add(EventSource session, User user, int amount) {
+        if (user == null || amount == 0) {
+            return;
+        }
+
+        pending.computeIfAbsent(session, key -> {
+            Changes changes = new Changes();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) changes);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) changes);
+            return changes;
+        }).add(user.getId(), amount);
+    }
+
+    // 한 트랜잭션 동안 모은 회원별 증감
+    private class Changes implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final Map<Long, Integer> amountsByUserId = new LinkedHashMap<>();
+
+        private void add(Long userId, int amount) {
+            amountsByUserId.merge(Objects.requireNonNull(userId), amount, Integer::sum);
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            pending.remove(session);
+            amountsByUserId.values().removeIf(amount -> amount == 0);
+
+            session.doWork(connection -> new UserOrderTotalUpdater(new SingleConnectionDataSource(connection, true))
+                    .accumulate(amountsByUserId));
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pending.remove(session);
+        }
+    }
+}
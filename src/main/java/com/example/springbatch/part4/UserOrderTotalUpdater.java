@@ -0,0 +1,73 @@
+package com.example.springbatch.part4;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// user_order_totals 를 회원별 증감만큼 증분 갱신 (주문을 저장하는 트랜잭션 안에서 호출)
+// 엔티티로 저장하는 주문은 UserOrderTotalListener 가 커밋 직전에 호출함
+// 이미 있는 회원은 update (total + 금액), 없는 회원은 insert
+// DB 마다 다른 upsert 문법 대신 조회 후 나눠서 batch 로 실행
+public class UserOrderTotalUpdater {
+
+    private static final int IN_CLAUSE_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public UserOrderTotalUpdater(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void accumulate(Map<Long, Integer> amountsByUserId) {
+        if (amountsByUserId.isEmpty()) {
+            return;
+        }
+
+        Set<Long> existing = findExistingUserIds(amountsByUserId.keySet());
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+
+        amountsByUserId.forEach((userId, amount) -> {
+            if (existing.contains(userId)) {
+                updates.add(new Object[] {amount, userId});
+            } else {
+                inserts.add(new Object[] {userId, amount});
+            }
+        });
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update user_order_totals set total_amount = total_amount + ? where user_id = ?", updates);
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into user_order_totals(user_id, total_amount) values (?, ?)", inserts);
+        }
+    }
+
+    private Set<Long> findExistingUserIds(Collection<Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        Set<Long> existing = new HashSet<>();
+
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+            List<Long> slice = ids.subList(from, Math.min(from + IN_CLAUSE_SIZE, ids.size()));
+
+            existing.addAll(namedParameterJdbcTemplate.queryForList(
+                    "select user_id from user_order_totals where user_id in (:userIds)",
+                    new MapSqlParameterSource("userIds", slice),
+                    Long.class));
+        }
+
+        return existing;
+    }
+}
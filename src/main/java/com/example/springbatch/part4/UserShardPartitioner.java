@@ -0,0 +1,150 @@
+package com.example.springbatch.part4;
+
+import com.example.springbatch.support.WeightedPartitionHandler;
+import io.micrometer.core.instrument.util.StringUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// 회원을 shard(테넌트) 단위로 나누는 Partitioner
+// users 에 테넌트 컬럼이 없어서 min(id) ~ max(id) 를 shards 개의 연속된 id 구간으로 나눈 번호를 테넌트 번호로 사용
+// (id % shards 로 나누면 파티션마다 reader 가 페이지마다 테이블 전체를 훑게 됨, id 구간이면 PK 범위만 읽음)
+// -shards=8 이면 0~7 번 shard 전부, -tenants=0,3 을 같이 주면 그 shard 만
+// - 파티션 ExecutionContext 에 MIN_ID, MAX_ID (양끝 포함) 를 넣어서 reader 가 그 구간만 읽음
+// - 파티션마다 회원 수를 WEIGHT 로 넣어서 WeightedPartitionHandler 가 큰 shard 부터 실행
+// - 회원이 없는 shard 는 파티션을 만들지 않음
+// - 매니저 스텝 리스너로도 등록해서, 증분 모드면 OrdersWatermarkListener 가 잡은 주문 범위를 파티션마다 넘겨줌
+//   (OrdersWatermarkListener 보다 뒤에 등록할 것)
+@Slf4j
+public class UserShardPartitioner implements Partitioner, StepExecutionListener {
+
+    public static final String SHARD = "user.shard";
+    public static final String MIN_ID = "user.minId";
+    public static final String MAX_ID = "user.maxId";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int shards;
+    private final Set<Integer> tenants;
+
+    private ExecutionContext watermark = new ExecutionContext();
+
+    public UserShardPartitioner(DataSource dataSource, int shards, String tenants) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards 는 1 이상이어야 합니다. shards=" + shards);
+        }
+
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.shards = shards;
+        this.tenants = parseTenants(tenants, shards);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        ExecutionContext stepContext = stepExecution.getExecutionContext();
+        watermark = new ExecutionContext();
+
+        if (stepContext.containsKey(OrdersWatermarkListener.FROM)) {
+            watermark.putLong(OrdersWatermarkListener.FROM, stepContext.getLong(OrdersWatermarkListener.FROM));
+            watermark.putLong(OrdersWatermarkListener.TO, stepContext.getLong(OrdersWatermarkListener.TO));
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        return null;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+
+        Map<String, Object> range = jdbcTemplate.queryForMap("select min(id) as min_id, max(id) as max_id from users");
+        if (range.get("min_id") == null) {
+            log.info("user shard 파티션 : 회원이 없습니다.");
+            return partitions;
+        }
+
+        long minId = ((Number) range.get("min_id")).longValue();
+        long maxId = ((Number) range.get("max_id")).longValue();
+        //마지막 shard 까지 max(id) 가 들어가도록 올림
+        long size = (maxId - minId) / shards + 1;
+
+        for (int shard : tenants) {
+            long from = minId + shard * size;
+            long to = Math.min(from + size - 1, maxId);
+            if (from > maxId) {
+                continue;
+            }
+
+            Long users = jdbcTemplate.queryForObject("select count(*) from users where id between ? and ?", Long.class, from, to);
+            counts.put(shard, users);
+            if (users == null || users == 0) {
+                continue;
+            }
+
+            ExecutionContext context = new ExecutionContext(watermark);
+            context.putInt(SHARD, shard);
+            context.putLong(MIN_ID, from);
+            context.putLong(MAX_ID, to);
+            context.putLong(WeightedPartitionHandler.WEIGHT, users);
+            partitions.put("shard" + shard, context);
+        }
+
+        log.info("user shard 파티션 : shards={}, id={}~{}, 대상={}, 회원 수={}", shards, minId, maxId, partitions.keySet(), counts);
+        return partitions;
+    }
+
+    // -shards 잡 파라메타 검증 (숫자가 아니면 NumberFormatException 대신 어떤 값이 잘못됐는지 알려줌)
+    public static int parseShards(String shards) {
+        try {
+            return Integer.parseInt(shards == null ? "" : shards.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("shards 는 1 이상의 정수여야 합니다. shards=" + shards, e);
+        }
+    }
+
+    private static Set<Integer> parseTenants(String tenants, int shards) {
+        if (StringUtils.isEmpty(tenants)) {
+            Set<Integer> all = new TreeSet<>();
+            for (int shard = 0; shard < shards; shard++) {
+                all.add(shard);
+            }
+            return all;
+        }
+
+        Set<Integer> selected = Arrays.stream(tenants.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(UserShardPartitioner::parseTenant)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        for (int shard : selected) {
+            if (shard < 0 || shard >= shards) {
+                throw new IllegalArgumentException("tenant 는 0 ~ " + (shards - 1) + " 사이여야 합니다. tenant=" + shard);
+            }
+        }
+
+        return selected;
+    }
+
+    private static int parseTenant(String tenant) {
+        try {
+            return Integer.parseInt(tenant);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("tenants 는 쉼표로 구분한 shard 번호여야 합니다. tenant=" + tenant, e);
+        }
+    }
+}
@@ -6,21 +6,34 @@ import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.job.flow.FlowExecutionStatus;
 import org.springframework.batch.core.job.flow.JobExecutionDecider;
 
+import java.util.function.Predicate;
+
 public class JobParametersDecide implements JobExecutionDecider {
 
     public static final FlowExecutionStatus CONTINUE = new FlowExecutionStatus("CONTINUE");
 
     private final String key;
+    private final Predicate<String> condition;
 
     public JobParametersDecide(String key) {
+        this(key, StringUtils::isNotEmpty);
+    }
+
+    private JobParametersDecide(String key, Predicate<String> condition) {
         this.key = key;
+        this.condition = condition;
+    }
+
+    //-sort=true 처럼 켜고 끄는 파라메타용 : 값이 true 일 때만 CONTINUE (-sort=false 는 COMPLETED)
+    public static JobParametersDecide ifTrue(String key) {
+        return new JobParametersDecide(key, Boolean::parseBoolean);
     }
 
     @Override
     public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
         String value = jobExecution.getJobParameters().getString(key);
 
-        if (StringUtils.isEmpty(value)) {
+        if (!condition.test(value)) {
             return FlowExecutionStatus.COMPLETED;
         }
 
@@ -0,0 +1,22 @@
+package com.example.springbatch.part5;
+
+import com.example.springbatch.support.ItemCodec;
+
+import java.nio.ByteBuffer;
+
+public class OrderStatisticsCodec implements ItemCodec<OrderStatistics> {
+
+    @Override
+    public void encode(OrderStatistics item, ByteBuffer out) {
+        ItemCodec.putString(out, item.getAmount());
+        ItemCodec.putDate(out, item.getDate());
+    }
+
+    @Override
+    public OrderStatistics decode(ByteBuffer in) {
+        return OrderStatistics.builder()
+                .amount(ItemCodec.getString(in))
+                .date(ItemCodec.getDate(in))
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.springbatch.part5;
+
+import com.example.springbatch.support.ChunkFileItemWriter;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// 일별 주문 금액을 컬럼 단위 바이너리로 저장 (Parquet 처럼 row group 안에 컬럼을 모아 씀)
+//
+// [MAGIC][VERSION]
+// row group (청크 하나) :
+//   int 블록 길이, int 행 수
+//   amount 컬럼 : long min, long max, long * 행 수
+//   date 컬럼   : long 첫 날짜(epochDay), long 마지막 날짜, 이전 날짜와의 차이 varint * 행 수
+// footer : long 전체 행 수, int row group 수, [MAGIC]
+//
+// 금액/날짜 min·max 가 블록 앞에 있어서 읽는 쪽은 필요 없는 row group 을 통째로 건너뛸 수 있음
+public class OrderStatisticsColumnarItemWriter extends ChunkFileItemWriter<OrderStatistics> {
+
+    public static final byte[] MAGIC = "OSTC".getBytes(StandardCharsets.US_ASCII);
+    public static final int VERSION = 1;
+
+    private static final String ROWS = "rows";
+    private static final String ROW_GROUPS = "rowGroups";
+
+    private long rows;
+    private int rowGroups;
+    private long committedRows;
+    private int committedRowGroups;
+
+    public OrderStatisticsColumnarItemWriter(String name, Resource resource) {
+        super(name, resource);
+    }
+
+    @Override
+    protected void writeHeader(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+        rows = 0;
+        rowGroups = 0;
+        committedRows = 0;
+        committedRowGroups = 0;
+    }
+
+    @Override
+    protected void writeChunk(List<? extends OrderStatistics> items, OutputStream out) throws IOException {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        ByteArrayOutputStream block = new ByteArrayOutputStream(items.size() * 10 + 64);
+        DataOutputStream data = new DataOutputStream(block);
+        data.writeInt(items.size());
+
+        long[] amounts = new long[items.size()];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < amounts.length; i++) {
+            //sum(amount) 는 DB 에 따라 BIGINT 나 DECIMAL 문자열로 옴
+            amounts[i] = new BigDecimal(items.get(i).getAmount()).longValueExact();
+            min = Math.min(min, amounts[i]);
+            max = Math.max(max, amounts[i]);
+        }
+
+        data.writeLong(min);
+        data.writeLong(max);
+        for (long amount : amounts) {
+            data.writeLong(amount);
+        }
+
+        //reader 가 created_date 오름차순이라 차이값이 작음 (보통 1)
+        long first = items.get(0).getDate().toEpochDay();
+        data.writeLong(first);
+        data.writeLong(items.get(items.size() - 1).getDate().toEpochDay());
+
+        long previous = first;
+        for (OrderStatistics item : items) {
+            long epochDay = item.getDate().toEpochDay();
+            writeVarLong(data, epochDay - previous);
+            previous = epochDay;
+        }
+        data.flush();
+
+        DataOutputStream target = new DataOutputStream(out);
+        target.writeInt(block.size());
+        block.writeTo(target);
+        target.flush();
+
+        rows += items.size();
+        rowGroups++;
+    }
+
+    @Override
+    protected void writeFooter(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeLong(rows);
+        data.writeInt(rowGroups);
+        data.write(MAGIC);
+        data.flush();
+    }
+
+    @Override
+    protected void save(ExecutionContext executionContext) {
+        committedRows = rows;
+        committedRowGroups = rowGroups;
+        executionContext.putLong(key(ROWS), rows);
+        executionContext.putInt(key(ROW_GROUPS), rowGroups);
+    }
+
+    @Override
+    protected void restore(ExecutionContext executionContext) {
+        rows = executionContext.getLong(key(ROWS), 0L);
+        rowGroups = executionContext.getInt(key(ROW_GROUPS), 0);
+        committedRows = rows;
+        committedRowGroups = rowGroups;
+    }
+
+    @Override
+    protected void discard() {
+        rows = committedRows;
+        rowGroups = committedRowGroups;
+    }
+
+    // zigzag 인코딩 후 7bit 씩 (음수 차이도 처리)
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.springbatch.part5;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+// select sum(amount), created_date 결과 매퍼
+// 날짜를 문자열로 받아 다시 파싱하지 않고 JDBC 4.2 getObject(LocalDate) 로 바로 읽음
+public class OrderStatisticsRowMapper implements RowMapper<OrderStatistics> {
+
+    @Override
+    public OrderStatistics mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return OrderStatistics.builder()
+                .amount(rs.getString(1))
+                .date(rs.getObject(2, LocalDate.class))
+                .build();
+    }
+}
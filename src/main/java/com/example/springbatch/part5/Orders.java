@@ -1,13 +1,18 @@
 package com.example.springbatch.part5;
 
+import com.example.springbatch.part4.User;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import java.time.LocalDate;
 
 @Entity
@@ -15,10 +20,18 @@ import java.time.LocalDate;
 @NoArgsConstructor
 public class Orders {
 
+    // 시퀀스에서 한번에 받아두는 id 수 (OrdersWatermarkListener 가 겹쳐 읽을 구간 계산에도 사용)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
     private String itemName;
 
     private int amount;
@@ -31,4 +44,9 @@ public class Orders {
         this.amount = amount;
         this.createdDate = createdDate;
     }
+
+    // User 생성 시 주문 목록의 주인(user_id)을 채움
+    public void assignUser(User user) {
+        this.user = user;
+    }
 }
\ No newline at end of file
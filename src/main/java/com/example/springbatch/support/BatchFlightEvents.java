@@ -0,0 +1,86 @@
+package com.example.springbatch.support;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// JFR(JDK Flight Recorder) 커스텀 이벤트
+// JMC 나 `jfr print --events springbatch.*` 로 확인
+// 녹화 중이 아니면 isEnabled() 가 false 라서 이벤트 객체도 만들지 않음
+public final class BatchFlightEvents {
+
+    private BatchFlightEvents() {
+    }
+
+    @Name("springbatch.Chunk")
+    @Label("Chunk")
+    @Category({"Spring Batch", "Chunk"})
+    @Description("청크(트랜잭션) 1회, 단계별 시간은 청크 안의 아이템 시간 합계")
+    @StackTrace(false)
+    public static class ChunkEvent extends Event {
+
+        @Label("Step")
+        public String step;
+
+        @Label("Chunk")
+        public long chunk;
+
+        @Label("Read Items")
+        public int readItems;
+
+        @Label("Written Items")
+        public int writtenItems;
+
+        @Label("Read Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long readTime;
+
+        @Label("Process Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long processTime;
+
+        @Label("Write Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long writeTime;
+
+        @Label("Commit And Other Time")
+        @Description("청크 전체 시간에서 read/process/write 를 뺀 시간 (커밋, 메타데이터 갱신 등)")
+        @Timespan(Timespan.NANOSECONDS)
+        public long commitTime;
+
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    @Name("springbatch.Step")
+    @Label("Step")
+    @Category({"Spring Batch", "Step"})
+    @Description("스텝 실행 1회, 파티션 스텝이면 partition 에 파티션 이름")
+    @StackTrace(false)
+    public static class StepEvent extends Event {
+
+        @Label("Step")
+        public String step;
+
+        @Label("Partition")
+        public String partition;
+
+        @Label("Status")
+        public String status;
+
+        @Label("Read Count")
+        public int readCount;
+
+        @Label("Write Count")
+        public int writeCount;
+
+        @Label("Heap Used At End")
+        @DataAmount
+        public long heapUsed;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.springbatch.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// JVM 을 띄워둔 채로 HTTP 요청을 받아 잡을 실행하는 상주 모드
+// 매 실행마다 JVM 기동, 하이버네이트 초기화, JIT 워밍업을 다시 하지 않고 커넥션 풀도 그대로 재사용
+//
+// POST /jobs/{jobName}?date=2020-11&path=/tmp/  → 비동기 실행, {"jobExecutionId":1,"status":"STARTING"}
+// GET  /jobs/executions/{jobExecutionId}          → {"jobExecutionId":1,"status":"COMPLETED",...}
+//
+// - 실행 스레드와 대기열이 모두 차 있으면 429 (요청 스레드는 기다리지 않음)
+// - 같은 잡이 실행 중(대기 포함)이면 409 : 스텝/리스너/writer 빈은 잡마다 하나라서 같은 잡을 동시에 돌리지 않음
+//   (reader 는 @StepScope 라서 끝난 잡을 다시 실행하면 처음부터 읽음)
+//
+// 로컬 전용 : 127.0.0.1 에만 바인드 (인증 없음)
+@Slf4j
+public class BatchServer implements SmartLifecycle {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final ApplicationContext applicationContext;
+    private final JobLauncher jobLauncher;
+    private final JobExplorer jobExplorer;
+    private final ThreadPoolTaskExecutor jobExecutor;
+    private final int port;
+    private final Object launchLock = new Object();
+
+    private HttpServer server;
+    private ExecutorService requestExecutor;
+
+    // jobExecutor : jobLauncher 가 잡을 실행하는 스레드 풀, 서버를 멈출 때 같이 정리
+    public BatchServer(ApplicationContext applicationContext, JobLauncher jobLauncher, JobExplorer jobExplorer,
+                       ThreadPoolTaskExecutor jobExecutor, int port) {
+        this.applicationContext = applicationContext;
+        this.jobLauncher = jobLauncher;
+        this.jobExplorer = jobExplorer;
+        this.jobExecutor = jobExecutor;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("배치 서버를 시작할 수 없습니다. port=" + port, e);
+        }
+
+        requestExecutor = Executors.newFixedThreadPool(2);
+        server.setExecutor(requestExecutor);
+        server.createContext("/jobs/executions/", this::execution);
+        server.createContext("/jobs/", this::launch);
+        server.start();
+
+        log.info("배치 서버 시작 : http://127.0.0.1:{}/jobs/{{jobName}}", port);
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            requestExecutor.shutdown();
+            server = null;
+        }
+
+        //실행 중인 잡은 끝날 때까지 기다림 (setWaitForTasksToCompleteOnShutdown)
+        jobExecutor.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    private void launch(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, error("POST 로 요청하세요."));
+            return;
+        }
+
+        String jobName = exchange.getRequestURI().getPath().substring("/jobs/".length());
+
+        Job job;
+        try {
+            //고르지 않은 잡은 autowire 후보가 아니라서(SelectedJobBeanFactoryPostProcessor) 이름으로 찾음
+            job = applicationContext.getBean(jobName, Job.class);
+        } catch (NoSuchBeanDefinitionException e) {
+            respond(exchange, 404, error("잡이 없습니다. " + jobName));
+            return;
+        }
+
+        JobExecution jobExecution;
+        try {
+            jobExecution = launchIfNotRunning(job, exchange.getRequestURI().getRawQuery());
+        } catch (TaskRejectedException e) {
+            respond(exchange, 429, error("실행 대기열이 가득 찼습니다. 잠시 후 다시 요청하세요."));
+            return;
+        } catch (Exception e) {
+            log.warn("{} 실행 실패", jobName, e);
+            respond(exchange, 409, error(e.getMessage()));
+            return;
+        }
+
+        if (jobExecution == null) {
+            respond(exchange, 409, error("이미 실행 중인 잡입니다. " + job.getName()));
+            return;
+        }
+
+        if (rejected(jobExecution)) {
+            log.warn("{} 실행 대기열이 가득 차서 거절 (jobExecutionId={})", jobName, jobExecution.getId());
+            respond(exchange, 429, error("실행 대기열이 가득 찼습니다. 잠시 후 다시 요청하세요."));
+            return;
+        }
+
+        respond(exchange, 202, execution(jobExecution));
+    }
+
+    // 같은 잡이 실행 중(대기 포함)이면 null
+    // 실행 중인지 확인하고 실행 이력을 만드는 사이에 같은 잡 요청이 끼어들지 않도록 잠금
+    private JobExecution launchIfNotRunning(Job job, String query) throws Exception {
+        synchronized (launchLock) {
+            if (!jobExplorer.findRunningJobExecutions(job.getName()).isEmpty()) {
+                return null;
+            }
+
+            return jobLauncher.run(job, jobParameters(job, query));
+        }
+    }
+
+    // SimpleJobLauncher 는 taskExecutor 가 거절하면 예외를 던지지 않고 FAILED 로 끝낸 실행을 돌려줌
+    private static boolean rejected(JobExecution jobExecution) {
+        return jobExecution.getStatus() == BatchStatus.FAILED
+                && jobExecution.getExitStatus().getExitDescription().contains(TaskRejectedException.class.getName());
+    }
+
+    private void execution(HttpExchange exchange) throws IOException {
+        String id = exchange.getRequestURI().getPath().substring("/jobs/executions/".length());
+
+        JobExecution jobExecution;
+        try {
+            jobExecution = jobExplorer.getJobExecution(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            respond(exchange, 400, error("jobExecutionId 가 숫자가 아닙니다. " + id));
+            return;
+        }
+
+        if (jobExecution == null) {
+            respond(exchange, 404, error("실행 이력이 없습니다. " + id));
+            return;
+        }
+
+        respond(exchange, 200, execution(jobExecution));
+    }
+
+    // 쿼리 스트링을 문자열 파라메타로, 잡에 incrementer 가 있으면 run.id 도 증가
+    private JobParameters jobParameters(Job job, String query) {
+        JobParametersBuilder builder = job.getJobParametersIncrementer() == null
+                ? new JobParametersBuilder()
+                : new JobParametersBuilder(jobExplorer).getNextJobParameters(job);
+
+        if (query == null || query.isEmpty()) {
+            return builder.toJobParameters();
+        }
+
+        for (String pair : query.split("&")) {
+            int index = pair.indexOf('=');
+            if (index <= 0) {
+                continue;
+            }
+            builder.addString(decode(pair.substring(0, index)), decode(pair.substring(index + 1)));
+        }
+
+        return builder.toJobParameters();
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Object> execution(JobExecution jobExecution) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("jobName", jobExecution.getJobInstance().getJobName());
+        body.put("jobExecutionId", jobExecution.getId());
+        body.put("status", jobExecution.getStatus().toString());
+        body.put("exitCode", jobExecution.getExitStatus().getExitCode());
+        body.put("startTime", jobExecution.getStartTime());
+        body.put("endTime", jobExecution.getEndTime());
+        return body;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        return body;
+    }
+
+    private static void respond(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
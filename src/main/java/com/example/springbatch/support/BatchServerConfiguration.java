@@ -0,0 +1,52 @@
+package com.example.springbatch.support;
+
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// -Dbatch.server.enabled=true 면 상주 모드로 실행 (--job.name 없이 띄우고 HTTP 로 잡 실행)
+// java -jar spring-batch-0.0.1-SNAPSHOT.jar -Dbatch.server.enabled=true
+// curl -X POST 'http://127.0.0.1:8089/jobs/userJob?date=2020-11&path=/tmp/'
+@Configuration
+@ConditionalOnProperty(name = "batch.server.enabled", havingValue = "true")
+public class BatchServerConfiguration {
+
+    @Bean
+    public BatchServer batchServer(ApplicationContext applicationContext,
+                                   JobRepository jobRepository,
+                                   JobExplorer jobExplorer,
+                                   @Value("${batch.server.port:8089}") int port,
+                                   @Value("${batch.server.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                   @Value("${batch.server.queue-capacity:10}") int queueCapacity) throws Exception {
+        ThreadPoolTaskExecutor taskExecutor = batchServerTaskExecutor(maxConcurrentJobs, queueCapacity);
+
+        SimpleJobLauncher jobLauncher = new SimpleJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.setTaskExecutor(taskExecutor);
+        jobLauncher.afterPropertiesSet();
+
+        return new BatchServer(applicationContext, jobLauncher, jobExplorer, taskExecutor, port);
+    }
+
+    // 요청 스레드가 잡이 끝나길 기다리지 않도록 별도 스레드에서 실행
+    // 동시에 maxConcurrentJobs 개까지 실행하고 queueCapacity 개까지 대기, 그 이상은 거절(AbortPolicy) → 429
+    // (SimpleAsyncTaskExecutor 의 concurrencyLimit 은 자리가 날 때까지 요청 스레드를 막아서 GET 까지 멈춤)
+    // Executor 빈으로 등록하면 스프링 부트의 applicationTaskExecutor 가 만들어지지 않아서 빈으로 두지 않고 BatchServer 가 정리
+    private ThreadPoolTaskExecutor batchServerTaskExecutor(int maxConcurrentJobs, int queueCapacity) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setThreadNamePrefix("batch-server-job-");
+        taskExecutor.setCorePoolSize(maxConcurrentJobs);
+        taskExecutor.setMaxPoolSize(maxConcurrentJobs);
+        taskExecutor.setQueueCapacity(queueCapacity);
+        taskExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        taskExecutor.initialize();
+
+        return taskExecutor;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.springbatch.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// 여러 Job 설정에서 같이 쓰는 배치 지원 빈
+// 테스트는 @ContextConfiguration 으로 필요한 설정만 올리기 때문에 각 설정에서 @Import 로 가져다 씀
+@Configuration
+public class BatchSupportConfiguration {
+
+    // meterRegistry 는 actuator 의 MetricsAutoConfiguration 이 만든 것을 씀 (export 설정이 없으면 SimpleMeterRegistry)
+    @Bean
+    public ConnectionPoolGovernor connectionPoolGovernor(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int defaultPoolSize,
+            @Value("${batch.governor.reserved-connections:1}") int reservedConnections) {
+        return new ConnectionPoolGovernor(dataSource, defaultPoolSize, reservedConnections, meterRegistry);
+    }
+
+    @Bean
+    public FileWriterOptions fileWriterOptions() {
+        return new FileWriterOptions();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+// 쓰기 실패 시 청크를 반으로 나눠 다시 쓰면서 문제 아이템만 골라내는 writer
+// faultTolerant 스텝의 기본 동작은 청크 롤백 후 아이템을 하나씩 다시 쓰는 것 (청크 크기만큼 쓰기)
+// 여기서는 나쁜 아이템 하나당 2 * log2(청크 크기) 번 정도만 다시 씀
+// - 나눈 조각마다 청크 트랜잭션 안의 savepoint(중첩 트랜잭션)로 쓰고, 실패하면 그 savepoint 까지만 롤백
+//   그래서 성공한 조각도 청크와 함께 커밋되고, 청크가 롤백되면 같이 사라짐
+// - delegate 는 청크 트랜잭션의 JDBC 커넥션으로 쓰는 writer 여야 함 (JdbcBatchItemWriter 등)
+//   JPA writer 는 flush 가 실패하면 Hibernate 가 트랜잭션 전체를 rollback-only 로 만들어서 사용할 수 없음
+// - 건너뛸지는 skipPolicy 로 판단, 스텝의 skip 건수를 더해서 넘기므로 스텝의 skipLimit 과 같은 한도를 씀
+// - 건너뛴 건은 청크가 커밋된 뒤(afterChunk) writeCount → writeSkipCount 로 옮기고 SkipListener 를 부름
+//   (롤백된 청크의 skip 은 버림) → 스텝에 listener 로도 등록해야 함
+// 싱글 스레드 스텝에서만 사용
+@Slf4j
+public class BisectingItemWriter<T> implements ItemWriter<T>, ChunkListener {
+
+    private final ItemWriter<T> delegate;
+    private final DataSource dataSource;
+    private final SkipPolicy skipPolicy;
+
+    private List<SkipListener<?, ? super T>> skipListeners = new ArrayList<>();
+
+    //이번 청크에서 건너뛴 아이템
+    private final List<Skipped<T>> skipped = new ArrayList<>();
+
+    public BisectingItemWriter(ItemWriter<T> delegate, DataSource dataSource, SkipPolicy skipPolicy) {
+        this.delegate = delegate;
+        this.dataSource = dataSource;
+        this.skipPolicy = skipPolicy;
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        if (!TransactionSynchronizationManager.hasResource(dataSource)) {
+            throw new IllegalStateException("BisectingItemWriter 는 dataSource 의 커넥션을 쓰는 청크 트랜잭션 안에서만 사용할 수 있습니다.");
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        bisect(connection, items);
+    }
+
+    private void bisect(Connection connection, List<? extends T> items) throws Exception {
+        Savepoint savepoint = connection.setSavepoint();
+
+        try {
+            delegate.write(items);
+            release(connection, savepoint);
+        } catch (Exception e) {
+            connection.rollback(savepoint);
+
+            if (items.size() == 1) {
+                skip(items.get(0), e);
+                return;
+            }
+
+            if (!skipPolicy.shouldSkip(e, -1)) {
+                throw e;
+            }
+
+            int half = items.size() / 2;
+            log.debug("{}건 쓰기 실패, {} / {} 로 나눠서 다시 씀", items.size(), half, items.size() - half);
+            bisect(connection, items.subList(0, half));
+            bisect(connection, items.subList(half, items.size()));
+        }
+    }
+
+    // 스텝의 skip 건수 + 이번 청크에서 건너뛴 건수로 한도를 확인 (넘으면 SkipLimitExceededException)
+    private void skip(T item, Exception e) throws Exception {
+        StepExecution stepExecution = StepSynchronizationManager.getContext().getStepExecution();
+
+        if (!skipPolicy.shouldSkip(e, stepExecution.getSkipCount() + skipped.size())) {
+            throw e;
+        }
+
+        log.warn("쓰기 실패로 건너뜀 : {}", item, e);
+        skipped.add(new Skipped<>(item, e));
+    }
+
+    // 일부 드라이버는 releaseSavepoint 를 지원하지 않음 (커밋 때 같이 정리되므로 무시)
+    private void release(Connection connection, Savepoint savepoint) {
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            log.debug("savepoint 를 해제하지 못했습니다.", e);
+        }
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        skipped.clear();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (skipped.isEmpty()) {
+            return;
+        }
+
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        stepExecution.setWriteCount(stepExecution.getWriteCount() - skipped.size());
+        stepExecution.setWriteSkipCount(stepExecution.getWriteSkipCount() + skipped.size());
+
+        for (Skipped<T> skip : skipped) {
+            for (SkipListener<?, ? super T> listener : skipListeners) {
+                listener.onSkipInWrite(skip.item, skip.cause);
+            }
+        }
+
+        skipped.clear();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        skipped.clear();
+    }
+
+    public void setSkipListeners(List<SkipListener<?, ? super T>> skipListeners) {
+        this.skipListeners = skipListeners;
+    }
+
+    private static class Skipped<T> {
+        private final T item;
+        private final Throwable cause;
+
+        private Skipped(T item, Throwable cause) {
+            this.item = item;
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.file.FlatFileFooterCallback;
+import org.springframework.batch.item.file.FlatFileHeaderCallback;
+import org.springframework.batch.item.file.transform.LineAggregator;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// FlatFileItemWriter 대신 쓰는 대용량 파일 writer
+// - 라인을 큰 direct ByteBuffer 에 모았다가 버퍼가 가득 찰 때만 FileChannel 로 씀 (청크 경계마다 내보내지 않음)
+// - async 면 가득 찬 버퍼를 백그라운드 스레드가 쓰는 동안 다른 버퍼에 계속 채움 (더블 버퍼)
+//   청크 커밋(update)은 백그라운드 쓰기를 기다리지 않으므로 쓰기와 다음 청크 처리가 겹침
+// - fsync(force) 시점 : 청크마다 / N 청크마다 / 스텝 종료 시, 이때만 버퍼를 내보내고 백그라운드 쓰기를 기다림
+// - 재시작 : 청크가 끝난 바이트 위치(버퍼에 남은 것 포함)를 ExecutionContext 에 남기고, 재시작하면 그 위치로 잘라내고 이어 씀
+//   스텝이 실패해도 close 에서 버퍼를 모두 쓰기 때문에 위치와 파일 내용이 맞음
+//   프로세스가 강제 종료되면 마지막 fsync 이후의 내용은 파일에 없을 수 있음 → 재시작 시 파일이 짧으면 실패
+//   (강제 종료 후에도 이어 써야 하면 fsync=EVERY_CHUNK)
+// - 청크가 롤백되면 그 청크에서 쓴 만큼 되돌림
+@Slf4j
+public class BufferedFileItemWriter<T> implements ItemStreamWriter<T> {
+
+    public enum FsyncPolicy {
+        EVERY_CHUNK, EVERY_N_CHUNKS, STEP_END
+    }
+
+    private static final String POSITION = "position";
+
+    private final String name;
+    private final Resource resource;
+    private final LineAggregator<T> lineAggregator;
+
+    private Charset encoding = StandardCharsets.UTF_8;
+    private String lineSeparator = System.lineSeparator();
+    private FlatFileHeaderCallback headerCallback;
+    private FlatFileFooterCallback footerCallback;
+    private boolean append = false;
+    private int bufferSize = 1024 * 1024;
+    private boolean async = false;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.STEP_END;
+    private int fsyncInterval = 10;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private ByteBuffer spare;
+    private Executor backgroundExecutor;
+    private ExecutorService backgroundWriter;
+    private CompletableFuture<Void> pending;
+    private long flushedPosition;
+    private long chunks;
+
+    public BufferedFileItemWriter(String name, Resource resource, LineAggregator<T> lineAggregator) {
+        this.name = name;
+        this.resource = resource;
+        this.lineAggregator = lineAggregator;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            channel = FileChannel.open(resource.getFile().toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+
+            if (async) {
+                spare = ByteBuffer.allocateDirect(bufferSize);
+                if (backgroundExecutor == null) {
+                    backgroundWriter = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, name + "-writer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+
+            String positionKey = key(POSITION);
+            if (executionContext.containsKey(positionKey)) {
+                //재시작 : 마지막으로 커밋된 청크 위치 이후는 버림
+                long position = executionContext.getLong(positionKey);
+
+                if (channel.size() < position) {
+                    throw new ItemStreamException("파일 크기(" + channel.size() + ")가 재시작 위치(" + position + ") 보다 작습니다. "
+                            + "fsync 전에 프로세스가 종료되어 버퍼의 내용이 파일에 쓰이지 않았습니다. 스텝을 처음부터 다시 실행해야 합니다. " + resource);
+                }
+
+                channel.truncate(position);
+                flushedPosition = position;
+            } else {
+                if (!append) {
+                    channel.truncate(0);
+                }
+
+                flushedPosition = channel.size();
+            }
+
+            //헤더가 버퍼를 넘으면 open 안에서 채널(백그라운드)로 쓰기 시작하므로 위치를 먼저 맞춤
+            channel.position(flushedPosition);
+
+            if (flushedPosition == 0 && headerCallback != null) {
+                StringWriter header = new StringWriter();
+                headerCallback.writeHeader(header);
+                put(header + lineSeparator);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("파일을 열 수 없습니다. " + resource, e);
+        }
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        long chunkStart = position();
+        registerRollback(chunkStart);
+
+        StringBuilder lines = new StringBuilder(items.size() * 64);
+        for (T item : items) {
+            lines.append(lineAggregator.aggregate(item)).append(lineSeparator);
+        }
+
+        put(lines.toString());
+    }
+
+    // 청크가 커밋되기 직전에 호출됨 : 청크가 끝난 위치를 저장
+    // fsync 할 청크만 버퍼를 내보내고 기다림, 나머지는 버퍼가 찰 때까지 모으고 백그라운드 쓰기도 기다리지 않음
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+
+        chunks++;
+
+        if (fsyncPolicy == FsyncPolicy.EVERY_CHUNK
+                || (fsyncPolicy == FsyncPolicy.EVERY_N_CHUNKS && chunks % fsyncInterval == 0)) {
+            try {
+                flush();
+                channel.force(false);
+            } catch (IOException e) {
+                throw new ItemStreamException("파일 쓰기 실패 " + resource, e);
+            }
+        }
+
+        executionContext.putLong(key(POSITION), position());
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            if (footerCallback != null) {
+                StringWriter footer = new StringWriter();
+                footerCallback.writeFooter(footer);
+                put(footer.toString());
+            }
+
+            flush();
+            channel.force(false);
+        } catch (IOException e) {
+            throw new ItemStreamException("파일 쓰기 실패 " + resource, e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private long position() {
+        return flushedPosition + buffer.position();
+    }
+
+    private void put(String value) throws IOException {
+        byte[] bytes = value.getBytes(encoding);
+        int offset = 0;
+
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    // 가득 찬 버퍼를 채널로 보냄, async 면 백그라운드에 맡기고 다른 버퍼로 교체
+    private void drain() throws IOException {
+        awaitPending();
+
+        if (buffer.position() == 0) {
+            return;
+        }
+
+        buffer.flip();
+        flushedPosition += buffer.remaining();
+
+        if (async) {
+            ByteBuffer full = buffer;
+            buffer = spare;
+            spare = full;
+            pending = CompletableFuture.runAsync(() -> {
+                try {
+                    writeFully(full);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, backgroundExecutor == null ? backgroundWriter : backgroundExecutor);
+        } else {
+            writeFully(buffer);
+        }
+    }
+
+    private void flush() throws IOException {
+        drain();
+        awaitPending();
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+        source.clear();
+    }
+
+    private void awaitPending() throws IOException {
+        if (pending == null) {
+            return;
+        }
+
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("백그라운드 쓰기 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            throw new IOException("백그라운드 쓰기 실패", cause);
+        } finally {
+            pending = null;
+        }
+    }
+
+    // 청크 트랜잭션이 롤백되면 이번 청크에서 쓴 바이트를 되돌림
+    private void registerRollback(long chunkStart) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    rollbackTo(chunkStart);
+                }
+            }
+        });
+    }
+
+    private void rollbackTo(long chunkStart) {
+        try {
+            awaitPending();
+
+            if (flushedPosition > chunkStart) {
+                buffer.clear();
+                channel.truncate(chunkStart);
+                channel.position(chunkStart);
+                flushedPosition = chunkStart;
+            } else {
+                buffer.position((int) (chunkStart - flushedPosition));
+            }
+        } catch (IOException e) {
+            log.error("{} : 롤백된 청크를 파일에서 되돌리지 못했습니다.", name, e);
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            awaitPending();
+        } catch (IOException e) {
+            log.warn("{} : 백그라운드 쓰기 실패", name, e);
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("{} : 파일 닫기 실패", name, e);
+        }
+
+        if (backgroundWriter != null) {
+            backgroundWriter.shutdown();
+        }
+
+        channel = null;
+        buffer = null;
+        spare = null;
+        backgroundWriter = null;
+        chunks = 0;
+    }
+
+    private String key(String suffix) {
+        return name + "." + suffix;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = Charset.forName(encoding);
+    }
+
+    public void setLineSeparator(String lineSeparator) {
+        this.lineSeparator = lineSeparator;
+    }
+
+    public void setHeaderCallback(FlatFileHeaderCallback headerCallback) {
+        this.headerCallback = headerCallback;
+    }
+
+    public void setFooterCallback(FlatFileFooterCallback footerCallback) {
+        this.footerCallback = footerCallback;
+    }
+
+    public void setAppend(boolean append) {
+        this.append = append;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    // async 백그라운드 쓰기를 실행할 Executor (없으면 writer 마다 스레드 1개)
+    public void setBackgroundExecutor(Executor backgroundExecutor) {
+        this.backgroundExecutor = backgroundExecutor;
+    }
+
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    public void setFsyncInterval(int fsyncInterval) {
+        this.fsyncInterval = fsyncInterval;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.springbatch.support;
+
+import java.time.Duration;
+
+// 매니저와 워커 사이의 요청/응답 채널
+// 지금은 InMemoryChunkChannel 만 있지만 loopback 소켓이나 메시지 브로커로 바꿔 끼울 수 있도록 분리
+public interface ChunkChannel<I, O> {
+
+    void send(ChunkRequest<I> request);
+
+    // 요청이 없으면 timeout 만큼 기다리고 null
+    ChunkRequest<I> receive(Duration timeout) throws InterruptedException;
+
+    void reply(ChunkResponse<O> response);
+
+    // 응답이 없으면 timeout 만큼 기다리고 null
+    ChunkResponse<O> receiveReply(String correlationId, Duration timeout) throws InterruptedException;
+
+    // 더 이상 응답을 받지 않을 correlationId 정리
+    void release(String correlationId);
+}
@@ -0,0 +1,158 @@
+package com.example.springbatch.support;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// 청크 단위로 인코딩한 바이트 블록을 파일 끝에 붙이는 writer (압축, 컬럼 포맷처럼 중간에 잘라 쓸 수 없는 포맷용)
+// - write : 청크를 메모리에서 인코딩만 하고 (롤백되면 버림)
+// - update : 커밋 직전에 블록을 파일에 붙이고 위치를 ExecutionContext 에 남김
+// - 재시작하면 마지막으로 커밋된 블록 끝으로 잘라내고 이어 씀
+public abstract class ChunkFileItemWriter<T> implements ItemStreamWriter<T> {
+
+    private static final String POSITION = "position";
+
+    private final String name;
+    private final Resource resource;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(64 * 1024);
+
+    private FileChannel channel;
+
+    protected ChunkFileItemWriter(String name, Resource resource) {
+        this.name = name;
+        this.resource = resource;
+    }
+
+    // 파일 맨 앞에 한번 (재시작 때는 쓰지 않음)
+    protected abstract void writeHeader(OutputStream out) throws IOException;
+
+    // 청크 하나를 블록 하나로
+    protected abstract void writeChunk(List<? extends T> items, OutputStream out) throws IOException;
+
+    // close 할 때 한번
+    protected abstract void writeFooter(OutputStream out) throws IOException;
+
+    // 재시작에 필요한 값이 더 있으면 하위 클래스에서 저장/복원
+    protected void save(ExecutionContext executionContext) {
+    }
+
+    protected void restore(ExecutionContext executionContext) {
+    }
+
+    // 청크가 롤백돼서 인코딩해둔 블록을 버릴 때
+    protected void discard() {
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            channel = FileChannel.open(resource.getFile().toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+            String positionKey = key(POSITION);
+            if (executionContext.containsKey(positionKey)) {
+                long position = executionContext.getLong(positionKey);
+
+                if (channel.size() < position) {
+                    throw new ItemStreamException("파일 크기(" + channel.size() + ")가 재시작 위치(" + position + ") 보다 작습니다. " + resource);
+                }
+
+                channel.truncate(position);
+                channel.position(position);
+                restore(executionContext);
+            } else {
+                channel.truncate(0);
+                writeHeader(pending);
+                append();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("파일을 열 수 없습니다. " + resource, e);
+        }
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        registerRollback();
+        writeChunk(items, pending);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            append();
+            executionContext.putLong(key(POSITION), channel.position());
+        } catch (IOException e) {
+            throw new ItemStreamException("파일 쓰기 실패 " + resource, e);
+        }
+
+        save(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            append();
+            writeFooter(pending);
+            append();
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("파일 쓰기 실패 " + resource, e);
+        } finally {
+            channel = null;
+            pending.reset();
+        }
+    }
+
+    protected String key(String suffix) {
+        return name + "." + suffix;
+    }
+
+    private void append() throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(pending.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        pending.reset();
+    }
+
+    // 롤백된 청크는 아직 파일에 붙이기 전이라 버리기만 하면 됨
+    private void registerRollback() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    pending.reset();
+                    discard();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.springbatch.support;
+
+import org.springframework.batch.item.ItemWriter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// remote chunking 의 매니저 쪽 역할을 하는 ItemWriter
+// 스텝은 읽기만 하고, 읽은 청크를 sliceSize 단위로 잘라 워커에게 보낸 뒤
+// 모든 조각의 ack 를 받으면 원래 순서대로 모아 delegate 로 쓴다
+// 하나라도 실패하거나 시간 안에 응답이 없으면 예외를 던져 청크 트랜잭션을 롤백
+// 주의 : processor 가 워커로 빠지기 때문에 스텝의 writeCount 는 읽은 건수, filterCount 는 0 으로 집계됨
+public class ChunkManagerItemWriter<I, O> implements ItemWriter<I> {
+
+    private final ChunkChannel<I, O> channel;
+    private final ItemWriter<? super O> delegate;
+    private final int sliceSize;
+    private final Duration replyTimeout;
+
+    public ChunkManagerItemWriter(ChunkChannel<I, O> channel, ItemWriter<? super O> delegate,
+                                  int sliceSize, Duration replyTimeout) {
+        this.channel = channel;
+        this.delegate = delegate;
+        this.sliceSize = sliceSize;
+        this.replyTimeout = replyTimeout;
+    }
+
+    @Override
+    public void write(List<? extends I> items) throws Exception {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        String correlationId = UUID.randomUUID().toString();
+        int slices = send(correlationId, items);
+
+        List<List<O>> results = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            results.add(null);
+        }
+
+        try {
+            for (int received = 0; received < slices; received++) {
+                ChunkResponse<O> response = channel.receiveReply(correlationId, replyTimeout);
+
+                if (response == null) {
+                    throw new IllegalStateException("워커 응답 시간 초과 : " + (slices - received) + "개 조각 미수신");
+                }
+
+                if (!response.isSuccess()) {
+                    throw new IllegalStateException("워커 처리 실패 (sequence=" + response.getSequence() + ") : " + response.getMessage());
+                }
+
+                results.set(response.getSequence(), response.getItems());
+            }
+        } finally {
+            channel.release(correlationId);
+        }
+
+        List<O> outputs = new ArrayList<>(items.size());
+        results.forEach(outputs::addAll);
+
+        if (!outputs.isEmpty()) {
+            delegate.write(outputs);
+        }
+    }
+
+    private int send(String correlationId, List<? extends I> items) {
+        int sequence = 0;
+
+        for (int from = 0; from < items.size(); from += sliceSize) {
+            int to = Math.min(from + sliceSize, items.size());
+            channel.send(new ChunkRequest<>(correlationId, sequence++, new ArrayList<I>(items.subList(from, to))));
+        }
+
+        return sequence;
+    }
+}
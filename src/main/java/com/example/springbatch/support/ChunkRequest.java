@@ -0,0 +1,21 @@
+package com.example.springbatch.support;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// 매니저가 워커에게 보내는 청크 조각
+// correlationId 는 매니저의 write 호출 하나, sequence 는 그 안에서 몇 번째 조각인지
+@Getter
+public class ChunkRequest<I> {
+
+    private final String correlationId;
+    private final int sequence;
+    private final List<I> items;
+
+    public ChunkRequest(String correlationId, int sequence, List<I> items) {
+        this.correlationId = correlationId;
+        this.sequence = sequence;
+        this.items = items;
+    }
+}
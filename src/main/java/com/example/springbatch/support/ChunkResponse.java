@@ -0,0 +1,34 @@
+package com.example.springbatch.support;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+// 워커가 매니저에게 돌려주는 처리 결과 (ack)
+// 필터링된(null) 아이템은 빠진 상태로 items 에 담김
+@Getter
+public class ChunkResponse<O> {
+
+    private final String correlationId;
+    private final int sequence;
+    private final List<O> items;
+    private final boolean success;
+    private final String message;
+
+    private ChunkResponse(String correlationId, int sequence, List<O> items, boolean success, String message) {
+        this.correlationId = correlationId;
+        this.sequence = sequence;
+        this.items = items;
+        this.success = success;
+        this.message = message;
+    }
+
+    public static <O> ChunkResponse<O> success(ChunkRequest<?> request, List<O> items) {
+        return new ChunkResponse<>(request.getCorrelationId(), request.getSequence(), items, true, null);
+    }
+
+    public static <O> ChunkResponse<O> failure(ChunkRequest<?> request, String message) {
+        return new ChunkResponse<>(request.getCorrelationId(), request.getSequence(), Collections.emptyList(), false, message);
+    }
+}
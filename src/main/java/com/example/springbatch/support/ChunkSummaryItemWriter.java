@@ -0,0 +1,90 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// 아이템마다 로그를 남기는 대신 청크 요약 한 줄만 남기는 writer
+// - sampleEvery : N 청크마다 한번만 로그 (1 이면 모든 청크)
+// - minInterval : 로그 사이 최소 간격, 간격 안에 들어온 청크는 건너뛰고 건너뛴 수만 다음 로그에 남김
+// - 스텝이 끝나면(close) 전체 청크 수 / 아이템 수를 한 줄로 남김
+// 로거 이름이 batch.chunk 라서 logging.level.batch.chunk 로 따로 끌 수 있음
+@Slf4j(topic = "batch.chunk")
+public class ChunkSummaryItemWriter<T> implements ItemStreamWriter<T> {
+
+    private final String name;
+    private final Function<? super T, ?> keyExtractor;
+
+    private int sampleEvery = 1;
+    private long minIntervalNanos = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+    private final AtomicLong lastLogged = new AtomicLong();
+
+    public ChunkSummaryItemWriter(String name, Function<? super T, ?> keyExtractor) {
+        this.name = name;
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public void write(List<? extends T> chunk) {
+        long chunkNo = chunks.incrementAndGet();
+        long total = items.addAndGet(chunk.size());
+
+        if (chunk.isEmpty() || !log.isInfoEnabled() || !sampled(chunkNo)) {
+            suppressed.incrementAndGet();
+            return;
+        }
+
+        log.info("{} chunk={} size={} first={} last={} total={} suppressed={}",
+                name, chunkNo, chunk.size(),
+                keyExtractor.apply(chunk.get(0)),
+                keyExtractor.apply(chunk.get(chunk.size() - 1)),
+                total, suppressed.getAndSet(0));
+    }
+
+    // 여러 스레드가 동시에 써도 간격당 한 스레드만 로그를 남기도록 CAS
+    private boolean sampled(long chunkNo) {
+        if ((chunkNo - 1) % sampleEvery != 0) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        long last = lastLogged.get();
+
+        return (last == 0 || now - last >= minIntervalNanos) && lastLogged.compareAndSet(last, now);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        chunks.set(0);
+        items.set(0);
+        suppressed.set(0);
+        lastLogged.set(0);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        log.info("{} done chunks={} items={}", name, chunks.get(), items.get());
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    public void setMinInterval(Duration minInterval) {
+        this.minIntervalNanos = minInterval.toNanos();
+    }
+}
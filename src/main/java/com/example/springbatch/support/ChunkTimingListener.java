@@ -0,0 +1,256 @@
+package com.example.springbatch.support;
+
+import org.springframework.batch.core.annotation.AfterChunk;
+import org.springframework.batch.core.annotation.AfterChunkError;
+import org.springframework.batch.core.annotation.AfterProcess;
+import org.springframework.batch.core.annotation.AfterRead;
+import org.springframework.batch.core.annotation.AfterWrite;
+import org.springframework.batch.core.annotation.BeforeChunk;
+import org.springframework.batch.core.annotation.BeforeProcess;
+import org.springframework.batch.core.annotation.BeforeRead;
+import org.springframework.batch.core.annotation.BeforeWrite;
+import org.springframework.batch.core.annotation.OnProcessError;
+import org.springframework.batch.core.annotation.OnReadError;
+import org.springframework.batch.core.annotation.OnWriteError;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 청크(트랜잭션 1회) 처리 시간을 재서 스텝마다 가장 느린 청크 몇 개만 보관
+// 청크 안의 read / process / write 시간도 스텝 실행마다 더해둠 (잡 리포트의 phases)
+// - 멀티 스레드 스텝에서도 한 청크는 한 스레드에서 돌기 때문에 청크 상태는 ThreadLocal
+// - 멀티 스레드 스텝의 단계별 시간은 스레드마다 걸린 시간의 합이라 스텝 시간보다 클 수 있음
+// - 마지막 read(null 반환)는 afterRead 가 불리지 않아 빠짐
+// 스텝 실행 id 별로 보관하므로 다 쓴 뒤에는 remove 로 정리
+// 아이템 리스너까지 등록되도록 인터페이스 대신 어노테이션을 씀 (.listener(Object) 로 붙임)
+public class ChunkTimingListener {
+
+    private final int keep;
+    private final ThreadLocal<ChunkTrace> current = new ThreadLocal<>();
+    private final Map<Long, Timings> timings = new ConcurrentHashMap<>();
+
+    public ChunkTimingListener(int keep) {
+        this.keep = keep;
+    }
+
+    @BeforeChunk
+    public void beforeChunk(ChunkContext context) {
+        Long stepExecutionId = context.getStepContext().getStepExecution().getId();
+        current.set(new ChunkTrace(timings.computeIfAbsent(stepExecutionId, id -> new Timings(keep))));
+    }
+
+    @AfterChunk
+    public void afterChunk(ChunkContext context) {
+        record(false);
+    }
+
+    @AfterChunkError
+    public void afterChunkError(ChunkContext context) {
+        record(true);
+    }
+
+    @BeforeRead
+    public void beforeRead() {
+        started();
+    }
+
+    @AfterRead
+    public void afterRead(Object item) {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.readTime += System.nanoTime() - trace.started;
+        }
+    }
+
+    @OnReadError
+    public void onReadError(Exception e) {
+        afterRead(null);
+    }
+
+    @BeforeProcess
+    public void beforeProcess(Object item) {
+        started();
+    }
+
+    @AfterProcess
+    public void afterProcess(Object item, Object result) {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.processTime += System.nanoTime() - trace.started;
+        }
+    }
+
+    @OnProcessError
+    public void onProcessError(Object item, Exception e) {
+        afterProcess(item, null);
+    }
+
+    @BeforeWrite
+    public void beforeWrite(List<?> items) {
+        started();
+    }
+
+    @AfterWrite
+    public void afterWrite(List<?> items) {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.writeTime += System.nanoTime() - trace.started;
+        }
+    }
+
+    @OnWriteError
+    public void onWriteError(Exception e, List<?> items) {
+        afterWrite(items);
+    }
+
+    public List<ChunkTiming> slowest(Long stepExecutionId) {
+        Timings stepTimings = timings.get(stepExecutionId);
+        return stepTimings == null ? new ArrayList<>() : stepTimings.slowest();
+    }
+
+    public PhaseTiming phases(Long stepExecutionId) {
+        Timings stepTimings = timings.get(stepExecutionId);
+        return stepTimings == null ? new PhaseTiming(0, 0, 0) : stepTimings.phases();
+    }
+
+    public void remove(Long stepExecutionId) {
+        timings.remove(stepExecutionId);
+    }
+
+    private void started() {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.started = System.nanoTime();
+        }
+    }
+
+    private void record(boolean failed) {
+        ChunkTrace trace = current.get();
+        current.remove();
+
+        if (trace == null) {
+            return;
+        }
+
+        trace.timings.add(System.nanoTime() - trace.begun, failed);
+        trace.timings.addPhases(trace.readTime, trace.processTime, trace.writeTime);
+    }
+
+    private static class ChunkTrace {
+        private final Timings timings;
+        private final long begun = System.nanoTime();
+        private long started;
+        private long readTime;
+        private long processTime;
+        private long writeTime;
+
+        private ChunkTrace(Timings timings) {
+            this.timings = timings;
+        }
+    }
+
+    public static class ChunkTiming {
+        private final long chunk;
+        private final long millis;
+        private final boolean failed;
+
+        private ChunkTiming(long chunk, long millis, boolean failed) {
+            this.chunk = chunk;
+            this.millis = millis;
+            this.failed = failed;
+        }
+
+        public long getChunk() {
+            return chunk;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+    }
+
+    public static class PhaseTiming {
+        private final long readMillis;
+        private final long processMillis;
+        private final long writeMillis;
+
+        private PhaseTiming(long readMillis, long processMillis, long writeMillis) {
+            this.readMillis = readMillis;
+            this.processMillis = processMillis;
+            this.writeMillis = writeMillis;
+        }
+
+        public long getReadMillis() {
+            return readMillis;
+        }
+
+        public long getProcessMillis() {
+            return processMillis;
+        }
+
+        public long getWriteMillis() {
+            return writeMillis;
+        }
+    }
+
+    // 크기가 keep 인 최소 힙 : 가장 빠른 청크가 맨 앞이라 더 느린 청크가 오면 교체
+    private static class Timings {
+        private final int keep;
+        private final AtomicLong chunks = new AtomicLong();
+        private final AtomicLong readTime = new AtomicLong();
+        private final AtomicLong processTime = new AtomicLong();
+        private final AtomicLong writeTime = new AtomicLong();
+        private final PriorityQueue<long[]> heap;
+
+        private Timings(int keep) {
+            this.keep = keep;
+            this.heap = new PriorityQueue<>(keep + 1, Comparator.comparingLong(value -> value[1]));
+        }
+
+        private void add(long elapsedNanos, boolean failed) {
+            long chunk = chunks.incrementAndGet();
+
+            synchronized (heap) {
+                heap.offer(new long[] {chunk, elapsedNanos, failed ? 1 : 0});
+                if (heap.size() > keep) {
+                    heap.poll();
+                }
+            }
+        }
+
+        private void addPhases(long readNanos, long processNanos, long writeNanos) {
+            readTime.addAndGet(readNanos);
+            processTime.addAndGet(processNanos);
+            writeTime.addAndGet(writeNanos);
+        }
+
+        private PhaseTiming phases() {
+            return new PhaseTiming(readTime.get() / 1_000_000, processTime.get() / 1_000_000, writeTime.get() / 1_000_000);
+        }
+
+        private List<ChunkTiming> slowest() {
+            List<long[]> values;
+            synchronized (heap) {
+                values = new ArrayList<>(heap);
+            }
+
+            values.sort(Comparator.comparingLong((long[] value) -> value[1]).reversed());
+
+            List<ChunkTiming> result = new ArrayList<>(values.size());
+            for (long[] value : values) {
+                result.add(new ChunkTiming(value[0], value[1] / 1_000_000, value[2] == 1));
+            }
+            return result;
+        }
+    }
+}
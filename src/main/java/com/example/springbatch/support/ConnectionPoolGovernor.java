@@ -0,0 +1,112 @@
+package com.example.springbatch.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// 하나의 DataSource 를 같이 쓰는 스텝들의 동시성을 커넥션 풀 크기에 맞춰 제한
+// 풀 크기보다 스레드가 많으면 커넥션 대기로 쌓이고 JobRepository 까지 커넥션을 못 얻는 문제가 생김
+// - reservedConnections 만큼은 배치 메타데이터(JobRepository) 용으로 남겨둠
+// - 나머지를 permit 으로 나눠 가지고, 청크 실행 전에 permit 을 얻어야 실행
+// - permit 대기 시간은 batch.governor.wait 타이머로 기록
+@Slf4j
+public class ConnectionPoolGovernor {
+
+    private final int poolSize;
+    private final int reservedConnections;
+    private final Semaphore permits;
+    private final MeterRegistry meterRegistry;
+
+    public ConnectionPoolGovernor(DataSource dataSource, int defaultPoolSize, int reservedConnections, MeterRegistry meterRegistry) {
+        this(resolvePoolSize(dataSource, defaultPoolSize), reservedConnections, meterRegistry);
+    }
+
+    ConnectionPoolGovernor(int poolSize, int reservedConnections, MeterRegistry meterRegistry) {
+        this.poolSize = poolSize;
+        //최소 하나는 스텝이 쓸 수 있어야 함
+        this.reservedConnections = Math.max(0, Math.min(reservedConnections, poolSize - 1));
+        this.permits = new Semaphore(getAvailableConnections(), true);
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("batch.governor.permits", permits, Semaphore::availablePermits)
+                .register(meterRegistry);
+
+        log.info("connection pool governor : poolSize={}, reserved={}", this.poolSize, this.reservedConnections);
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getAvailableConnections() {
+        return poolSize - reservedConnections;
+    }
+
+    // 스텝이 원하는 동시성과 풀에서 쓸 수 있는 커넥션 수 중 작은 값
+    public int concurrencyFor(int requested) {
+        return Math.max(1, Math.min(requested, getAvailableConnections()));
+    }
+
+    // 청크 작업이 실행되기 전에 permit 을 얻도록 감싼 TaskExecutor
+    public TaskExecutor govern(String stepName, TaskExecutor delegate) {
+        Timer waitTimer = Timer.builder("batch.governor.wait")
+                .tag("step", stepName)
+                .register(meterRegistry);
+
+        return task -> delegate.execute(() -> {
+            long start = System.nanoTime();
+            permits.acquireUninterruptibly();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    // 여러 스레드가 커넥션을 동시에 잡고 있어야 끝나는 작업용 (예: 모든 writer 가 끝난 뒤 같이 커밋하는 fan-out)
+    // permit 을 스레드마다 하나씩 얻으면 서로 나머지를 기다리며 멈출 수 있어서 필요한 만큼 한번에 얻음
+    public <T> T callWithPermits(String stepName, int count, Callable<T> task) throws Exception {
+        if (count > getAvailableConnections()) {
+            throw new IllegalStateException(stepName + " 은 커넥션 " + count + "개가 동시에 필요한데 쓸 수 있는 커넥션은 "
+                    + getAvailableConnections() + "개 입니다. (poolSize=" + poolSize + ", reserved=" + reservedConnections + ")");
+        }
+
+        Timer waitTimer = Timer.builder("batch.governor.wait")
+                .tag("step", stepName)
+                .register(meterRegistry);
+
+        long start = System.nanoTime();
+        permits.acquireUninterruptibly(count);
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        try {
+            return task.call();
+        } finally {
+            permits.release(count);
+        }
+    }
+
+    private static int resolvePoolSize(DataSource dataSource, int defaultPoolSize) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("커넥션 풀 크기를 확인할 수 없어 기본값 {} 을 사용합니다.", defaultPoolSize, e);
+        }
+
+        return defaultPoolSize;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.springbatch.support;
+
+import java.util.Arrays;
+
+// 파일 내보내기 형식 (-format=csv | csv.gz | columnar)
+public enum ExportFormat {
+    CSV("csv", ".csv"),
+    CSV_GZIP("csv.gz", ".csv.gz"),
+    COLUMNAR("columnar", ".col");
+
+    private final String name;
+    private final String extension;
+
+    ExportFormat(String name, String extension) {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // 파라메타가 없으면 기존처럼 CSV
+    public static ExportFormat of(String name) {
+        if (name == null || name.isEmpty()) {
+            return CSV;
+        }
+
+        return Arrays.stream(values())
+                .filter(format -> format.name.equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("지원하지 않는 format 입니다. " + name));
+    }
+}
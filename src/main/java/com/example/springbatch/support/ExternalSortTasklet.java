@@ -0,0 +1,222 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+// 메모리에 다 올릴 수 없는 큰 CSV 를 key 기준으로 정렬하는 tasklet (외부 정렬)
+// 1. 최대 runSize 줄씩 읽어 메모리에서 정렬한 뒤 임시 파일(run)로 내림
+// 2. run 들의 첫 줄을 PriorityQueue 에 넣고 가장 작은 줄부터 꺼내며 합침 (k-way merge)
+// 같은 key 는 원래 순서를 유지 (run 안은 안정 정렬, run 사이는 run 번호 순)
+// 정렬된 파일 경로는 JobExecutionContext 의 outputKey 로 넘겨 다음 스텝 reader 가 사용
+// 정렬된 파일은 잡 인스턴스마다 정해진 경로(directory/sorted-잡이름-인스턴스id.csv)에 만듦
+// - 실패한 잡을 재시작하면 (다른 프로세스여도) 같은 파일을 찾을 수 있음
+// - 파일의 수명은 cleanupListener() 가 관리 : 잡이 성공하면 지우고, 실패하면 재시작용으로 남김
+// - 정렬 스텝을 allowStartIfComplete(true) 로 두면 재시작 때 파일이 남아 있으면 그대로 쓰고, 없어졌으면 다시 정렬
+@Slf4j
+public class ExternalSortTasklet implements Tasklet {
+
+    private final Resource input;
+    private final Function<String, String> keyExtractor;
+    private final String outputKey;
+
+    private Charset encoding = StandardCharsets.UTF_8;
+    private int linesToSkip = 0;
+    private int runSize = 100_000;
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"));
+
+    public ExternalSortTasklet(Resource input, Function<String, String> keyExtractor, String outputKey) {
+        this.input = input;
+        this.keyExtractor = keyExtractor;
+        this.outputKey = outputKey;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        JobExecution jobExecution = chunkContext.getStepContext().getStepExecution().getJobExecution();
+        Path output = directory.resolve("sorted-" + jobExecution.getJobInstance().getJobName()
+                + "-" + jobExecution.getJobInstance().getInstanceId() + ".csv");
+
+        if (Files.exists(output)) {
+            //이전 실행(실패)이 만든 파일, 정렬은 끝까지 된 뒤에만 이 이름으로 옮기므로 그대로 사용
+            log.info("이전 실행에서 정렬한 파일을 다시 사용합니다. {}", output);
+        } else {
+            sort(contribution, output);
+        }
+
+        jobExecution.getExecutionContext().putString(outputKey, output.toString());
+
+        return RepeatStatus.FINISHED;
+    }
+
+    // 임시 파일에 정렬한 뒤 output 으로 옮김 (중간에 실패하면 output 은 생기지 않음)
+    private void sort(StepContribution contribution, Path output) throws IOException {
+        List<String> header = new ArrayList<>(linesToSkip);
+        List<Path> runs = new ArrayList<>();
+        Path partial = output.resolveSibling(output.getFileName() + ".tmp");
+
+        try {
+            long lines = split(header, runs, contribution);
+            merge(header, runs, partial);
+            Files.move(partial, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            log.info("{} 줄을 run {} 개로 나눠 정렬했습니다. {}", lines, runs.size(), output);
+        } finally {
+            Files.deleteIfExists(partial);
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    // 잡이 성공하면 정렬된 파일을 지움
+    // 실패하면 재시작할 때 이 파일을 다시 읽기 때문에 남겨둠
+    public JobExecutionListener cleanupListener() {
+        return new JobExecutionListener() {
+            @Override
+            public void beforeJob(JobExecution jobExecution) {
+            }
+
+            @Override
+            public void afterJob(JobExecution jobExecution) {
+                String sorted = jobExecution.getExecutionContext().getString(outputKey, null);
+                if (sorted == null || jobExecution.getStatus() != BatchStatus.COMPLETED) {
+                    return;
+                }
+
+                try {
+                    Files.deleteIfExists(Path.of(sorted));
+                } catch (IOException e) {
+                    log.warn("정렬 파일을 지우지 못했습니다. {}", sorted, e);
+                }
+            }
+        };
+    }
+
+    private long split(List<String> header, List<Path> runs, StepContribution contribution) throws IOException {
+        Comparator<String> comparator = Comparator.comparing(keyExtractor);
+        List<String> buffer = new ArrayList<>(Math.min(runSize, 10_000));
+        long lines = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input.getInputStream(), encoding))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (header.size() < linesToSkip) {
+                    header.add(line);
+                    continue;
+                }
+
+                buffer.add(line);
+                lines++;
+                contribution.incrementReadCount();
+
+                if (buffer.size() >= runSize) {
+                    runs.add(spill(buffer, comparator));
+                }
+            }
+        }
+
+        if (!buffer.isEmpty()) {
+            runs.add(spill(buffer, comparator));
+        }
+
+        return lines;
+    }
+
+    // List.sort 는 안정 정렬
+    private Path spill(List<String> buffer, Comparator<String> comparator) throws IOException {
+        buffer.sort(comparator);
+
+        Path run = Files.createTempFile("sort-run-", ".tmp");
+        Files.write(run, buffer, encoding);
+        buffer.clear();
+
+        return run;
+    }
+
+    private void merge(List<String> header, List<Path> runs, Path output) throws IOException {
+        List<BufferedReader> readers = new ArrayList<>(runs.size());
+        PriorityQueue<RunHead> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                Comparator.comparing((RunHead head) -> head.key).thenComparingInt(head -> head.run));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(output, encoding)) {
+            for (String line : header) {
+                writer.write(line);
+                writer.newLine();
+            }
+
+            for (int i = 0; i < runs.size(); i++) {
+                BufferedReader reader = Files.newBufferedReader(runs.get(i), encoding);
+                readers.add(reader);
+                offer(heads, reader, i);
+            }
+
+            while (!heads.isEmpty()) {
+                RunHead head = heads.poll();
+                writer.write(head.line);
+                writer.newLine();
+                offer(heads, readers.get(head.run), head.run);
+            }
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private void offer(PriorityQueue<RunHead> heads, BufferedReader reader, int run) throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            heads.offer(new RunHead(line, keyExtractor.apply(line), run));
+        }
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = Charset.forName(encoding);
+    }
+
+    public void setLinesToSkip(int linesToSkip) {
+        this.linesToSkip = linesToSkip;
+    }
+
+    public void setRunSize(int runSize) {
+        this.runSize = runSize;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    private static class RunHead {
+        private final String line;
+        private final String key;
+        private final int run;
+
+        private RunHead(String line, String key, int run) {
+            this.line = line;
+            this.key = key;
+            this.run = run;
+        }
+    }
+}
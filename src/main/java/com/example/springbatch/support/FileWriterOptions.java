@@ -0,0 +1,33 @@
+package com.example.springbatch.support;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+
+// 파일 writer 모드 설정 (application.yml 의 batch.file-writer.*)
+// buffered=false 면 기존 FlatFileItemWriter 를 그대로 사용
+@Getter
+public class FileWriterOptions {
+
+    @Value("${batch.file-writer.buffered:false}")
+    private boolean buffered;
+
+    @Value("${batch.file-writer.buffer-size:1048576}")
+    private int bufferSize;
+
+    @Value("${batch.file-writer.async:false}")
+    private boolean async;
+
+    @Value("${batch.file-writer.fsync:STEP_END}")
+    private BufferedFileItemWriter.FsyncPolicy fsyncPolicy;
+
+    @Value("${batch.file-writer.fsync-interval:10}")
+    private int fsyncInterval;
+
+    public <T> BufferedFileItemWriter<T> configure(BufferedFileItemWriter<T> itemWriter) {
+        itemWriter.setBufferSize(bufferSize);
+        itemWriter.setAsync(async);
+        itemWriter.setFsyncPolicy(fsyncPolicy);
+        itemWriter.setFsyncInterval(fsyncInterval);
+        return itemWriter;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.springbatch.support;
+
+import jdk.jfr.EventType;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.AfterChunk;
+import org.springframework.batch.core.annotation.AfterChunkError;
+import org.springframework.batch.core.annotation.AfterProcess;
+import org.springframework.batch.core.annotation.AfterRead;
+import org.springframework.batch.core.annotation.AfterStep;
+import org.springframework.batch.core.annotation.AfterWrite;
+import org.springframework.batch.core.annotation.BeforeChunk;
+import org.springframework.batch.core.annotation.BeforeProcess;
+import org.springframework.batch.core.annotation.BeforeRead;
+import org.springframework.batch.core.annotation.BeforeStep;
+import org.springframework.batch.core.annotation.BeforeWrite;
+import org.springframework.batch.core.annotation.OnProcessError;
+import org.springframework.batch.core.annotation.OnWriteError;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 청크 단위로 read / process / write / commit 시간을 재서 JFR 이벤트로 남기는 리스너
+// - 아이템마다 이벤트를 만들지 않고 청크 안에서 시간만 더했다가 청크가 끝날 때 이벤트 1개
+// - 청크 시작 시 JFR 녹화 중인지(isEnabled) 확인하고, 아니면 그 청크는 아무것도 재지 않음
+// - 멀티 스레드 스텝에서도 한 청크는 한 스레드에서 돌기 때문에 청크 상태는 ThreadLocal
+// 스텝 빌더에 FlightRecorderChunkListener.attach(stepBuilder, enabled) 로 붙임 (batch.jfr.enabled=true 일 때)
+public class FlightRecorderChunkListener {
+
+    private static final EventType CHUNK_EVENT = EventType.getEventType(BatchFlightEvents.ChunkEvent.class);
+    private static final EventType STEP_EVENT = EventType.getEventType(BatchFlightEvents.StepEvent.class);
+
+    private final ThreadLocal<ChunkTrace> current = new ThreadLocal<>();
+    private final Map<Long, BatchFlightEvents.StepEvent> steps = new ConcurrentHashMap<>();
+    private final AtomicLong chunks = new AtomicLong();
+
+    // enabled 면 스텝 빌더에 리스너를 붙이고, 아니면 그대로 돌려줌
+    public static <I, O> SimpleStepBuilder<I, O> attach(SimpleStepBuilder<I, O> stepBuilder, boolean enabled) {
+        if (enabled) {
+            stepBuilder.listener(new FlightRecorderChunkListener());
+        }
+        return stepBuilder;
+    }
+
+    @BeforeStep
+    public void beforeStep(StepExecution stepExecution) {
+        if (!STEP_EVENT.isEnabled()) {
+            return;
+        }
+
+        BatchFlightEvents.StepEvent event = new BatchFlightEvents.StepEvent();
+        event.begin();
+        steps.put(stepExecution.getId(), event);
+    }
+
+    @AfterStep
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        BatchFlightEvents.StepEvent event = steps.remove(stepExecution.getId());
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                String stepName = stepExecution.getStepName();
+                //파티션 스텝 이름은 "스텝:partition0" 형태
+                int partitionIndex = stepName.indexOf(':');
+
+                event.step = partitionIndex < 0 ? stepName : stepName.substring(0, partitionIndex);
+                event.partition = partitionIndex < 0 ? null : stepName.substring(partitionIndex + 1);
+                event.status = stepExecution.getStatus().toString();
+                event.readCount = stepExecution.getReadCount();
+                event.writeCount = stepExecution.getWriteCount();
+                event.heapUsed = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+                event.commit();
+            }
+        }
+
+        return null;
+    }
+
+    @BeforeChunk
+    public void beforeChunk(ChunkContext context) {
+        if (!CHUNK_EVENT.isEnabled()) {
+            current.remove();
+            return;
+        }
+
+        ChunkTrace trace = new ChunkTrace(context.getStepContext().getStepName(), chunks.incrementAndGet());
+        trace.event.begin();
+        current.set(trace);
+    }
+
+    @AfterChunk
+    public void afterChunk(ChunkContext context) {
+        commit(false);
+    }
+
+    @AfterChunkError
+    public void afterChunkError(ChunkContext context) {
+        commit(true);
+    }
+
+    @BeforeRead
+    public void beforeRead() {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.started = System.nanoTime();
+        }
+    }
+
+    @AfterRead
+    public void afterRead(Object item) {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.event.readTime += System.nanoTime() - trace.started;
+            trace.event.readItems++;
+        }
+    }
+
+    @BeforeProcess
+    public void beforeProcess(Object item) {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.started = System.nanoTime();
+        }
+    }
+
+    @AfterProcess
+    public void afterProcess(Object item, Object result) {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.event.processTime += System.nanoTime() - trace.started;
+        }
+    }
+
+    @OnProcessError
+    public void onProcessError(Object item, Exception e) {
+        afterProcess(item, null);
+    }
+
+    @BeforeWrite
+    public void beforeWrite(List<?> items) {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.started = System.nanoTime();
+        }
+    }
+
+    @AfterWrite
+    public void afterWrite(List<?> items) {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.event.writeTime += System.nanoTime() - trace.started;
+            trace.event.writtenItems += items.size();
+        }
+    }
+
+    @OnWriteError
+    public void onWriteError(Exception e, List<?> items) {
+        ChunkTrace trace = current.get();
+        if (trace != null) {
+            trace.event.writeTime += System.nanoTime() - trace.started;
+        }
+    }
+
+    private void commit(boolean failed) {
+        ChunkTrace trace = current.get();
+        current.remove();
+
+        if (trace == null) {
+            return;
+        }
+
+        BatchFlightEvents.ChunkEvent event = trace.event;
+        event.end();
+
+        if (event.shouldCommit()) {
+            long total = System.nanoTime() - trace.begun;
+            event.commitTime = Math.max(0, total - event.readTime - event.processTime - event.writeTime);
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    private static class ChunkTrace {
+        private final BatchFlightEvents.ChunkEvent event = new BatchFlightEvents.ChunkEvent();
+        private final long begun = System.nanoTime();
+        private long started;
+
+        private ChunkTrace(String step, long chunk) {
+            event.step = step;
+            event.chunk = chunk;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.springbatch.support;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileHeaderCallback;
+import org.springframework.batch.item.file.transform.LineAggregator;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// gzip 으로 압축한 CSV
+// 청크마다 gzip member 를 하나씩 붙임 : 여러 member 가 이어진 파일도 gzip/zcat/GZIPInputStream 으로 그대로 풀림
+// 덕분에 압축 스트림 중간에서 끊기지 않고 청크 경계로 재시작 가능
+// GZIPOutputStream 은 만들 때마다 native zlib 메모리를 잡고 GC 때나 풀어서, Deflater 하나를 member 마다 reset 해서 재사용
+public class GzipLineItemWriter<T> extends ChunkFileItemWriter<T> {
+
+    // magic, CM=deflate, FLG, MTIME(4), XFL, OS : GZIPOutputStream 과 같은 헤더
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final LineAggregator<T> lineAggregator;
+    private final CRC32 crc = new CRC32();
+
+    private Deflater deflater;
+
+    private Charset encoding = StandardCharsets.UTF_8;
+    private String lineSeparator = System.lineSeparator();
+    private FlatFileHeaderCallback headerCallback;
+
+    public GzipLineItemWriter(String name, Resource resource, LineAggregator<T> lineAggregator) {
+        super(name, resource);
+        this.lineAggregator = lineAggregator;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        //헤더 없이 raw deflate 로 압축하고 gzip 헤더/트레일러는 직접 씀
+        deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        super.open(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            super.close();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+            }
+        }
+    }
+
+    @Override
+    protected void writeHeader(OutputStream out) throws IOException {
+        if (headerCallback == null) {
+            return;
+        }
+
+        StringWriter header = new StringWriter();
+        headerCallback.writeHeader(header);
+        writeMember(out, header + lineSeparator);
+    }
+
+    @Override
+    protected void writeChunk(List<? extends T> items, OutputStream out) throws IOException {
+        StringBuilder lines = new StringBuilder(items.size() * 64);
+        for (T item : items) {
+            lines.append(lineAggregator.aggregate(item)).append(lineSeparator);
+        }
+
+        writeMember(out, lines.toString());
+    }
+
+    @Override
+    protected void writeFooter(OutputStream out) {
+    }
+
+    private void writeMember(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(encoding);
+        crc.reset();
+        crc.update(bytes);
+        deflater.reset();
+
+        out.write(GZIP_HEADER);
+        //직접 넘긴 Deflater 는 finish 해도 end 되지 않아서 다음 member 에서 다시 씀
+        DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater, 64 * 1024);
+        deflated.write(bytes);
+        deflated.finish();
+
+        //트레일러 : CRC32, 원본 길이 (little endian)
+        writeIntLE(out, crc.getValue());
+        writeIntLE(out, bytes.length);
+    }
+
+    private static void writeIntLE(OutputStream out, long value) throws IOException {
+        out.write((int) (value & 0xFF));
+        out.write((int) ((value >> 8) & 0xFF));
+        out.write((int) ((value >> 16) & 0xFF));
+        out.write((int) ((value >> 24) & 0xFF));
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = Charset.forName(encoding);
+    }
+
+    public void setLineSeparator(String lineSeparator) {
+        this.lineSeparator = lineSeparator;
+    }
+
+    public void setHeaderCallback(FlatFileHeaderCallback headerCallback) {
+        this.headerCallback = headerCallback;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.BatchConfigurer;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 배치 메타데이터(BATCH_* 테이블)를 업무 DB 가 아니라 프로세스 안의 H2 메모리 DB 에 두는 BatchConfigurer
+// - 짧게 돌고 끝나는 잡, 테스트용 : 업무 DB 로 메타데이터를 주고받는 왕복이 없어짐
+// - MapJobRepository 는 멀티 스레드에 안전하지 않아서(4.3 에서 deprecated) JDBC 저장소 + 메모리 DB 사용
+// - 메타데이터는 별도 트랜잭션이라 청크 커밋과 원자적이지 않음 : 재시작이 중요한 잡에는 쓰지 말 것
+// - snapshot 파일을 주면 주기적으로(그리고 종료 시) SQL 스크립트로 떨어뜨리고, 다음 실행 때 그 파일로 복원
+@Slf4j
+public class InMemoryBatchConfigurer implements BatchConfigurer, InitializingBean, DisposableBean {
+
+    private static final String SCHEMA = "org/springframework/batch/core/schema-h2.sql";
+
+    private final PlatformTransactionManager transactionManager;
+    private final Path snapshot;
+    private final Duration snapshotInterval;
+
+    private EmbeddedDatabase database;
+    private JobRepository jobRepository;
+    private JobExplorer jobExplorer;
+    private JobLauncher jobLauncher;
+    private ScheduledExecutorService snapshotScheduler;
+
+    public InMemoryBatchConfigurer(PlatformTransactionManager transactionManager) {
+        this(transactionManager, null, Duration.ZERO);
+    }
+
+    // snapshot 이 null 이면 스냅샷 없이 메모리에만 둠
+    public InMemoryBatchConfigurer(PlatformTransactionManager transactionManager, Path snapshot, Duration snapshotInterval) {
+        this.transactionManager = transactionManager;
+        this.snapshot = snapshot;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        boolean restore = snapshot != null && Files.exists(snapshot);
+
+        EmbeddedDatabaseBuilder builder = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true);
+        if (!restore) {
+            builder.addScript(SCHEMA);
+        }
+        database = builder.build();
+
+        if (restore) {
+            new JdbcTemplate(database).execute("RUNSCRIPT FROM '" + quote(snapshot) + "'");
+            log.info("배치 메타데이터를 스냅샷에서 복원했습니다. {}", snapshot);
+        }
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(database);
+        repositoryFactory.setTransactionManager(new DataSourceTransactionManager(database));
+        repositoryFactory.setDatabaseType("H2");
+        //메모리 DB 라 잡 생성 시 SERIALIZABLE 로 잠글 필요 없음
+        repositoryFactory.setIsolationLevelForCreate("ISOLATION_READ_COMMITTED");
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+
+        JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+        explorerFactory.setDataSource(database);
+        explorerFactory.afterPropertiesSet();
+        jobExplorer = explorerFactory.getObject();
+
+        SimpleJobLauncher launcher = new SimpleJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.afterPropertiesSet();
+        jobLauncher = launcher;
+
+        if (snapshot != null && !snapshotInterval.isZero()) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "batch-repository-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotScheduler.scheduleWithFixedDelay(this::snapshot,
+                    snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // 임시 파일에 쓰고 바꿔치기해서 쓰는 도중에 죽어도 이전 스냅샷은 남음
+    public synchronized void snapshot() {
+        if (snapshot == null || database == null) {
+            return;
+        }
+
+        try {
+            Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            new JdbcTemplate(database).execute("SCRIPT TO '" + quote(temp) + "'");
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.warn("배치 메타데이터 스냅샷 실패 {}", snapshot, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+
+        snapshot();
+
+        if (database != null) {
+            database.shutdown();
+            database = null;
+        }
+    }
+
+    private static String quote(Path path) {
+        return path.toAbsolutePath().toString().replace("'", "''");
+    }
+
+    @Override
+    public JobRepository getJobRepository() {
+        return jobRepository;
+    }
+
+    @Override
+    public PlatformTransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    @Override
+    public JobLauncher getJobLauncher() {
+        return jobLauncher;
+    }
+
+    @Override
+    public JobExplorer getJobExplorer() {
+        return jobExplorer;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.springbatch.support;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+// -Dbatch.repository.in-memory=true 면 배치 메타데이터를 메모리 DB 에 둠 (chunkProcessingJob, shareJob 같은 일회성 잡용)
+// -Dbatch.repository.snapshot-file=batch-meta.sql 을 주면 snapshot-interval-seconds 마다 파일로 저장하고 다음 실행 때 복원
+@Configuration
+@ConditionalOnProperty(name = "batch.repository.in-memory", havingValue = "true")
+public class InMemoryBatchRepositoryConfiguration {
+
+    @Bean
+    public InMemoryBatchConfigurer inMemoryBatchConfigurer(
+            ObjectProvider<EntityManagerFactory> entityManagerFactory,
+            DataSource dataSource,
+            @Value("${batch.repository.snapshot-file:}") String snapshotFile,
+            @Value("${batch.repository.snapshot-interval-seconds:30}") long snapshotIntervalSeconds) {
+
+        if (snapshotFile.isEmpty()) {
+            return new InMemoryBatchConfigurer(transactionManager(entityManagerFactory, dataSource));
+        }
+
+        return new InMemoryBatchConfigurer(transactionManager(entityManagerFactory, dataSource),
+                Paths.get(snapshotFile), Duration.ofSeconds(snapshotIntervalSeconds));
+    }
+
+    // 스텝 트랜잭션은 지금처럼 업무 DB 에서 : JPA 가 있으면 JpaTransactionManager
+    public static PlatformTransactionManager transactionManager(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                                                DataSource dataSource) {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        return factory != null
+                ? new JpaTransactionManager(factory)
+                : new DataSourceTransactionManager(dataSource);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.springbatch.support;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// 같은 JVM 안에서 큐로 주고받는 채널 (브로커 대용)
+// 응답은 correlationId 별 큐로 나눠서, 멀티 스레드 스텝에서 여러 매니저가 동시에 써도 섞이지 않음
+public class InMemoryChunkChannel<I, O> implements ChunkChannel<I, O> {
+
+    private final BlockingQueue<ChunkRequest<I>> requests = new LinkedBlockingQueue<>();
+    private final Map<String, BlockingQueue<ChunkResponse<O>>> replies = new ConcurrentHashMap<>();
+
+    @Override
+    public void send(ChunkRequest<I> request) {
+        replies.computeIfAbsent(request.getCorrelationId(), key -> new LinkedBlockingQueue<>());
+        requests.add(request);
+    }
+
+    @Override
+    public ChunkRequest<I> receive(Duration timeout) throws InterruptedException {
+        return requests.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void reply(ChunkResponse<O> response) {
+        BlockingQueue<ChunkResponse<O>> queue = replies.get(response.getCorrelationId());
+
+        //이미 release 된 요청(매니저가 실패로 포기한 경우)의 응답은 버림
+        if (queue != null) {
+            queue.add(response);
+        }
+    }
+
+    @Override
+    public ChunkResponse<O> receiveReply(String correlationId, Duration timeout) throws InterruptedException {
+        BlockingQueue<ChunkResponse<O>> queue = replies.get(correlationId);
+
+        if (queue == null) {
+            return null;
+        }
+
+        return queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void release(String correlationId) {
+        replies.remove(correlationId);
+    }
+
+    public int pendingRequests() {
+        return requests.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.springbatch.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 잡 실행 결과를 JSON 으로 정리
+// - 건수는 StepExecution 카운터를 그대로 사용 : DB 를 다시 조회하지 않음
+// - 단계별 시간과 느린 청크는 ChunkTimingListener 가 이번 스텝 실행에서 잰 것
+public class JobExecutionReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+
+    public JobExecutionReport(JobExecution jobExecution, ChunkTimingListener chunkTimings) {
+        String jobName = jobExecution.getJobInstance().getJobName();
+
+        report.put("job", jobName);
+        report.put("jobExecutionId", jobExecution.getId());
+        report.put("status", jobExecution.getStatus().toString());
+        report.put("durationMillis", millis(jobExecution.getStartTime(), jobExecution.getEndTime()));
+
+        List<Map<String, Object>> steps = new ArrayList<>();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            steps.add(step(stepExecution, chunkTimings));
+        }
+        report.put("steps", steps);
+    }
+
+    public Map<String, Object> getReport() {
+        return report;
+    }
+
+    public String toJson() {
+        try {
+            return OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("리포트를 JSON 으로 변환하지 못했습니다.", e);
+        }
+    }
+
+    private Map<String, Object> step(StepExecution stepExecution, ChunkTimingListener chunkTimings) {
+        //스텝이 아직 끝나지 않았으면(잡 실패 등) 지금까지 시간
+        Date endTime = stepExecution.getEndTime() == null ? new Date() : stepExecution.getEndTime();
+        long duration = millis(stepExecution.getStartTime(), endTime);
+
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("name", stepExecution.getStepName());
+        step.put("status", stepExecution.getStatus().toString());
+        step.put("durationMillis", duration);
+        step.put("read", stepExecution.getReadCount());
+        step.put("write", stepExecution.getWriteCount());
+        step.put("filter", stepExecution.getFilterCount());
+        step.put("readSkip", stepExecution.getReadSkipCount());
+        step.put("processSkip", stepExecution.getProcessSkipCount());
+        step.put("writeSkip", stepExecution.getWriteSkipCount());
+        step.put("commit", stepExecution.getCommitCount());
+        step.put("rollback", stepExecution.getRollbackCount());
+        step.put("itemsPerSecond", duration == 0 ? 0 : stepExecution.getReadCount() * 1000L / duration);
+
+        if (chunkTimings != null) {
+            ChunkTimingListener.PhaseTiming phaseTiming = chunkTimings.phases(stepExecution.getId());
+
+            Map<String, Object> phases = new LinkedHashMap<>();
+            phases.put("readMillis", phaseTiming.getReadMillis());
+            phases.put("processMillis", phaseTiming.getProcessMillis());
+            phases.put("writeMillis", phaseTiming.getWriteMillis());
+            step.put("phases", phases);
+            step.put("slowestChunks", chunkTimings.slowest(stepExecution.getId()));
+        }
+
+        return step;
+    }
+
+    private static long millis(Date start, Date end) {
+        if (start == null || end == null) {
+            return 0;
+        }
+        return end.getTime() - start.getTime();
+    }
+}
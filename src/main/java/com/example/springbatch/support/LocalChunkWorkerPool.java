@@ -0,0 +1,119 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// 채널에서 청크 요청을 받아 processor 를 실행하고 결과를 돌려주는 로컬 워커 스레드 묶음
+// 스텝 리스너로 등록하면 스텝 시작 시 워커를 띄우고 스텝이 끝나면 내린다
+// processor 는 여러 워커가 동시에 호출하므로 상태가 없어야 함
+@Slf4j
+public class LocalChunkWorkerPool<I, O> implements StepExecutionListener {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+
+    private final String name;
+    private final int workers;
+    private final ChunkChannel<I, O> channel;
+    private final ItemProcessor<? super I, ? extends O> itemProcessor;
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public LocalChunkWorkerPool(String name, int workers, ChunkChannel<I, O> channel,
+                                ItemProcessor<? super I, ? extends O> itemProcessor) {
+        this.name = name;
+        this.workers = workers;
+        this.channel = channel;
+        this.itemProcessor = itemProcessor;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::work, name + "-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        log.info("{} : 워커 {}개 시작", name, workers);
+    }
+
+    public synchronized void stop() {
+        running = false;
+
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+
+        for (Thread thread : threads) {
+            try {
+                thread.join(POLL_TIMEOUT.toMillis() * 5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        threads.clear();
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        start();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        stop();
+        return null;
+    }
+
+    private void work() {
+        while (running) {
+            ChunkRequest<I> request;
+
+            try {
+                request = channel.receive(POLL_TIMEOUT);
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            if (request != null) {
+                channel.reply(process(request));
+            }
+        }
+    }
+
+    ChunkResponse<O> process(ChunkRequest<I> request) {
+        List<O> outputs = new ArrayList<>(request.getItems().size());
+
+        try {
+            for (I item : request.getItems()) {
+                O output = itemProcessor.process(item);
+
+                //null 이면 필터링된 아이템
+                if (output != null) {
+                    outputs.add(output);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("{} : 청크 처리 실패 (sequence={})", name, request.getSequence(), e);
+            return ChunkResponse.failure(request, e.getClass().getName() + ": " + e.getMessage());
+        }
+
+        return ChunkResponse.success(request, outputs);
+    }
+}
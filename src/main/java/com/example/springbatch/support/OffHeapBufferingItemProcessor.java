@@ -0,0 +1,18 @@
+package com.example.springbatch.support;
+
+import org.springframework.batch.item.ItemProcessor;
+
+// 처리 단계의 마지막에 붙여서 아이템을 OffHeapItemBuffer 로 옮기는 processor
+public class OffHeapBufferingItemProcessor<T> implements ItemProcessor<T, OffHeapItem<T>> {
+
+    private final OffHeapItemBuffer<T> buffer;
+
+    public OffHeapBufferingItemProcessor(OffHeapItemBuffer<T> buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public OffHeapItem<T> process(T item) throws Exception {
+        return buffer.append(item);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springbatch.support;
+
+import lombok.Getter;
+
+// OffHeapItemBuffer 에 저장된 아이템의 위치 (청크에는 엔티티 대신 이 작은 핸들만 담김)
+@Getter
+public class OffHeapItem<T> {
+
+    private final int segment;
+    private final int offset;
+    private final int length;
+
+    OffHeapItem(int segment, int offset, int length) {
+        this.segment = segment;
+        this.offset = offset;
+        this.length = length;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.springbatch.support;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// 읽기/처리 후 쓰기 전까지 아이템을 직렬화해서 힙 밖(direct ByteBuffer)에 보관하는 버퍼
+// 청크가 커도 힙에는 OffHeapItem 핸들만 남아서 young/old 영역이 부풀지 않음
+// - segmentSize 단위로 direct 버퍼를 할당하고, codec 이 현재 segment 에 바로 씀 (모자라면 다음 segment)
+// - segment 마다 살아있는 아이템 수를 세고 0 이 되면 비워서 재사용
+//   멀티 스레드 스텝처럼 청크가 겹쳐도 다 쓴 segment 부터 돌려받으므로 동시에 처리 중인 아이템만큼만 할당됨
+// - segment 는 한번 할당하면 버퍼가 GC 될 때까지 재사용 (direct 메모리 재할당 비용 회피)
+public class OffHeapItemBuffer<T> {
+
+    private final ItemCodec<T> codec;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Deque<Segment> free = new ArrayDeque<>();
+
+    private Segment current;
+
+    public OffHeapItemBuffer(ItemCodec<T> codec, int segmentSize) {
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+    }
+
+    public synchronized OffHeapItem<T> append(T item) {
+        if (current == null) {
+            current = nextSegment();
+        }
+
+        int offset = current.buffer.position();
+
+        try {
+            codec.encode(item, current.buffer);
+        } catch (BufferOverflowException e) {
+            current.buffer.position(offset);
+
+            if (offset == 0) {
+                throw new IllegalArgumentException("아이템 크기가 segmentSize(" + segmentSize + ") 보다 큽니다.", e);
+            }
+
+            //남은 아이템이 release 되면 free 로 돌아감
+            current = nextSegment();
+            return append(item);
+        }
+
+        current.live++;
+        return new OffHeapItem<>(current.index, offset, current.buffer.position() - offset);
+    }
+
+    public synchronized T read(OffHeapItem<T> item) {
+        ByteBuffer view = segments.get(item.getSegment()).buffer.duplicate();
+        view.limit(item.getOffset() + item.getLength());
+        view.position(item.getOffset());
+
+        return codec.decode(view);
+    }
+
+    public synchronized void release(OffHeapItem<T> item) {
+        Segment segment = segments.get(item.getSegment());
+        segment.live--;
+
+        if (segment.live == 0) {
+            segment.buffer.clear();
+
+            if (segment != current) {
+                free.push(segment);
+            }
+        }
+    }
+
+    public synchronized long allocatedBytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    private Segment nextSegment() {
+        if (!free.isEmpty()) {
+            return free.pop();
+        }
+
+        Segment segment = new Segment(segments.size(), ByteBuffer.allocateDirect(segmentSize));
+        segments.add(segment);
+        return segment;
+    }
+
+    private static class Segment {
+        private final int index;
+        private final ByteBuffer buffer;
+        private int live;
+
+        private Segment(int index, ByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+}
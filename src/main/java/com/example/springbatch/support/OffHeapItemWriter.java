@@ -0,0 +1,71 @@
+package com.example.springbatch.support;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// OffHeapItemBuffer 에 있는 아이템을 windowSize 개씩만 힙으로 꺼내서 delegate 에 쓴다
+// delegate 가 ItemStream(FlatFileItemWriter 등)이면 open/update/close 도 그대로 전달
+public class OffHeapItemWriter<T> implements ItemStreamWriter<OffHeapItem<T>> {
+
+    private final OffHeapItemBuffer<T> buffer;
+    private final ItemWriter<? super T> delegate;
+    private final int windowSize;
+
+    public OffHeapItemWriter(OffHeapItemBuffer<T> buffer, ItemWriter<? super T> delegate, int windowSize) {
+        this.buffer = buffer;
+        this.delegate = delegate;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public void write(List<? extends OffHeapItem<T>> items) throws Exception {
+        try {
+            List<T> window = new ArrayList<>(Math.min(windowSize, items.size()));
+
+            for (OffHeapItem<T> item : items) {
+                window.add(buffer.read(item));
+
+                if (window.size() == windowSize) {
+                    delegate.write(window);
+                    window.clear();
+                }
+            }
+
+            if (!window.isEmpty()) {
+                delegate.write(window);
+            }
+        } finally {
+            //쓰기가 실패해도 청크는 롤백되고 핸들은 버려지므로 항상 돌려줌
+            for (OffHeapItem<T> item : items) {
+                buffer.release(item);
+            }
+        }
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).close();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.WriteFailedException;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// 한번 읽은 청크를 여러 writer 에 동시에 쓰는 ItemWriter (CompositeItemWriter 는 순서대로 하나씩 씀)
+// - writer 마다 별도 스레드, 별도 트랜잭션(REQUIRES_NEW) 으로 쓰기 때문에 가장 느린 writer 만큼만 걸림
+// - 커밋은 모든 writer 가 쓰기를 끝낸 뒤에 결정 : 전부 성공하면 같이 커밋, 하나라도 실패하면 전부 롤백
+//   (실패한 청크는 어느 writer 에도 남지 않아서 재시작해도 중복으로 들어가지 않음)
+// - writer 커밋이 끝난 뒤 청크 트랜잭션이 커밋되므로, 그 사이에 청크 커밋이 실패하면 그 청크는 재시작 시 다시 써짐
+//   (XA 가 아닌 best-effort 커밋, 중복이 문제면 writer 쪽을 upsert 로 만들 것)
+// - 커밋 직전까지 writer 마다 커넥션을 잡고 있어야 해서 writer 수만큼 동시에 실행할 수 있는 taskExecutor 를 줘야 함
+//   governor 를 주면 permit 을 writer 수만큼 한번에 얻은 뒤 실행
+// - 같은 아이템 리스트를 동시에 읽기 때문에 아이템을 변경하는 writer(JPA persist 등)는 복사본을 쓰도록 감싸서 넘길 것
+@Slf4j
+public class ParallelCompositeItemWriter<T> implements ItemStreamWriter<T> {
+
+    private final String name;
+    private final Map<String, ItemWriter<? super T>> delegates;
+    private final TaskExecutor taskExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final ConnectionPoolGovernor connectionPoolGovernor;
+    private final DefaultTransactionDefinition transactionDefinition =
+            new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    public ParallelCompositeItemWriter(String name,
+                                       Map<String, ItemWriter<? super T>> delegates,
+                                       TaskExecutor taskExecutor,
+                                       PlatformTransactionManager transactionManager) {
+        this(name, delegates, taskExecutor, transactionManager, null);
+    }
+
+    public ParallelCompositeItemWriter(String name,
+                                       Map<String, ItemWriter<? super T>> delegates,
+                                       TaskExecutor taskExecutor,
+                                       PlatformTransactionManager transactionManager,
+                                       ConnectionPoolGovernor connectionPoolGovernor) {
+        this.name = name;
+        this.delegates = new LinkedHashMap<>(delegates);
+        this.taskExecutor = taskExecutor;
+        this.transactionManager = transactionManager;
+        this.connectionPoolGovernor = connectionPoolGovernor;
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        if (connectionPoolGovernor == null) {
+            writeAll(items);
+            return;
+        }
+
+        connectionPoolGovernor.callWithPermits(name, delegates.size(), () -> {
+            writeAll(items);
+            return null;
+        });
+    }
+
+    private void writeAll(List<? extends T> items) {
+        List<? extends T> broadcast = Collections.unmodifiableList(new ArrayList<>(items));
+        CompletableFuture<Boolean> commitDecision = new CompletableFuture<>();
+        Map<String, CompletableFuture<Void>> written = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Void>> completed = new LinkedHashMap<>();
+
+        try {
+            delegates.forEach((sink, delegate) -> {
+                CompletableFuture<Void> sinkWritten = new CompletableFuture<>();
+                written.put(sink, sinkWritten);
+                completed.put(sink, CompletableFuture.runAsync(
+                        () -> writeInTransaction(delegate, broadcast, sinkWritten, commitDecision), taskExecutor));
+            });
+        } catch (RuntimeException e) {
+            //이미 시작한 writer 가 결정을 기다리며 멈춰 있지 않도록 롤백을 알림
+            commitDecision.complete(false);
+            throw e;
+        }
+
+        List<String> failed = new ArrayList<>();
+        Throwable firstFailure = null;
+
+        for (Map.Entry<String, CompletableFuture<Void>> entry : written.entrySet()) {
+            try {
+                entry.getValue().join();
+            } catch (CompletionException e) {
+                log.error("writer 실패 : {} ({}건)", entry.getKey(), broadcast.size(), e.getCause());
+                failed.add(entry.getKey());
+                firstFailure = firstFailure == null ? e.getCause() : firstFailure;
+            }
+        }
+
+        commitDecision.complete(failed.isEmpty());
+
+        List<String> commitFailed = new ArrayList<>();
+
+        for (Map.Entry<String, CompletableFuture<Void>> entry : completed.entrySet()) {
+            try {
+                entry.getValue().join();
+            } catch (CompletionException e) {
+                if (!failed.contains(entry.getKey())) {
+                    log.error("writer 커밋 실패 : {} ({}건)", entry.getKey(), broadcast.size(), e.getCause());
+                    commitFailed.add(entry.getKey());
+                    firstFailure = firstFailure == null ? e.getCause() : firstFailure;
+                }
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            throw new WriteFailedException("실패한 writer : " + failed + ", 모든 writer 를 롤백함", firstFailure);
+        }
+
+        if (!commitFailed.isEmpty()) {
+            throw new WriteFailedException("커밋 실패한 writer : " + commitFailed
+                    + ", 나머지 writer 는 커밋되어 재시작하면 이 청크가 다시 써짐", firstFailure);
+        }
+    }
+
+    // 쓰기를 끝내고 commitDecision 이 나올 때까지 트랜잭션을 열어둠 (트랜잭션이 스레드에 묶여 있어서 같은 스레드에서 커밋)
+    private void writeInTransaction(ItemWriter<? super T> delegate, List<? extends T> items,
+                                    CompletableFuture<Void> written, CompletableFuture<Boolean> commitDecision) {
+        TransactionStatus status;
+
+        try {
+            status = transactionManager.getTransaction(transactionDefinition);
+        } catch (RuntimeException e) {
+            written.completeExceptionally(e);
+            throw e;
+        }
+
+        try {
+            delegate.write(items);
+        } catch (Throwable e) {
+            written.completeExceptionally(e);
+            transactionManager.rollback(status);
+            throw new CompletionException(e);
+        }
+
+        written.complete(null);
+
+        if (commitDecision.join()) {
+            transactionManager.commit(status);
+        } else {
+            transactionManager.rollback(status);
+        }
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        for (ItemWriter<? super T> delegate : delegates.values()) {
+            if (delegate instanceof ItemStream) {
+                ((ItemStream) delegate).open(executionContext);
+            }
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        for (ItemWriter<? super T> delegate : delegates.values()) {
+            if (delegate instanceof ItemStream) {
+                ((ItemStream) delegate).update(executionContext);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        for (ItemWriter<? super T> delegate : delegates.values()) {
+            if (delegate instanceof ItemStream) {
+                ((ItemStream) delegate).close();
+            }
+        }
+    }
+}
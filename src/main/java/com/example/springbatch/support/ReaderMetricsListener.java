@@ -0,0 +1,89 @@
+package com.example.springbatch.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.AfterRead;
+import org.springframework.batch.core.annotation.AfterStep;
+import org.springframework.batch.core.annotation.BeforeStep;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+// cursor reader 가 결과를 스트리밍하는지 확인하기 위한 지표
+// - 스텝 시작부터 첫 row 를 읽기까지 걸린 시간 (전체를 클라이언트에 버퍼링하면 길어짐)
+// - 읽는 동안 힙 사용량 최대값 (sampleInterval 건마다 측정)
+// 스텝 안에서 한 스레드로 읽는 reader 에 붙여서 사용
+@Slf4j
+public class ReaderMetricsListener {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private final MeterRegistry meterRegistry;
+    private final int sampleInterval;
+
+    private String stepName;
+    private long startNanos;
+    private long timeToFirstRowNanos;
+    private long readCount;
+    private long maxHeapUsed;
+
+    public ReaderMetricsListener(MeterRegistry meterRegistry) {
+        this(meterRegistry, 1_000);
+    }
+
+    public ReaderMetricsListener(MeterRegistry meterRegistry, int sampleInterval) {
+        this.meterRegistry = meterRegistry;
+        this.sampleInterval = sampleInterval;
+    }
+
+    @BeforeStep
+    public void beforeStep(StepExecution stepExecution) {
+        stepName = stepExecution.getStepName();
+        startNanos = System.nanoTime();
+        timeToFirstRowNanos = -1;
+        readCount = 0;
+        maxHeapUsed = MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    @AfterRead
+    public void afterRead(Object item) {
+        if (readCount++ == 0) {
+            timeToFirstRowNanos = System.nanoTime() - startNanos;
+        }
+
+        if (readCount % sampleInterval == 0) {
+            maxHeapUsed = Math.max(maxHeapUsed, MEMORY.getHeapMemoryUsage().getUsed());
+        }
+    }
+
+    @AfterStep
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        maxHeapUsed = Math.max(maxHeapUsed, MEMORY.getHeapMemoryUsage().getUsed());
+
+        if (timeToFirstRowNanos >= 0) {
+            Timer.builder("batch.reader.time-to-first-row")
+                    .tag("step", stepName)
+                    .register(meterRegistry)
+                    .record(timeToFirstRowNanos, TimeUnit.NANOSECONDS);
+        }
+
+        DistributionSummary.builder("batch.reader.heap.used.max")
+                .tag("step", stepName)
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .record(maxHeapUsed);
+
+        log.info("{} : 첫 row {}ms, 읽은 건수 {}, 최대 힙 사용량 {}MB",
+                stepName,
+                TimeUnit.NANOSECONDS.toMillis(Math.max(timeToFirstRowNanos, 0)),
+                readCount,
+                maxHeapUsed / (1024 * 1024));
+
+        return stepExecution.getExitStatus();
+    }
+}
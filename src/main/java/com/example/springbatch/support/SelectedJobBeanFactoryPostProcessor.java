@@ -0,0 +1,105 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.StringUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// spring.batch.job.names 로 고른 잡만 만들도록 빈 정의를 바꾸는 후처리기
+// - 고르지 않은 Job 빈 : lazy + autowire 후보 제외 → JobLauncherApplicationRunner 가 Job 목록을 주입받을 때 만들어지지 않음
+// - 고르지 않은 잡을 선언한 @Configuration 과 그 안의 @Bean(reader, writer, listener 등) : lazy
+//   (고른 잡도 같이 선언한 @Configuration 은 그대로)
+// - Step 빈 : lazy → 고른 잡의 @Bean 메서드가 부를 때만 만들어짐
+// 잡 이름과 빈 이름이 같다는 전제 (이 프로젝트의 잡은 모두 같음)
+// lazy 로 바뀐 빈도 다른 빈이 참조하면 그때 만들어지므로 동작은 같고 기동 시점만 달라짐
+// job.names 가 없으면 아무것도 바꾸지 않음 (테스트처럼 잡을 직접 주입받는 경우)
+@Slf4j
+public class SelectedJobBeanFactoryPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private static final String JOB_NAMES = "spring.batch.job.names";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        String names = environment.getProperty(JOB_NAMES);
+        if (!StringUtils.hasText(names)) {
+            return;
+        }
+
+        Set<String> selected = StringUtils.commaDelimitedListToSet(names);
+        Set<String> unselectedConfigurations = unselectedConfigurations(beanFactory, selected);
+        int deferredJobs = 0;
+        int deferredSteps = 0;
+        int deferredBeans = 0;
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            String returnType = returnType(definition);
+
+            if (Job.class.getName().equals(returnType) && !selected.contains(beanName)) {
+                definition.setLazyInit(true);
+                definition.setAutowireCandidate(false);
+                deferredJobs++;
+            } else if (Step.class.getName().equals(returnType)) {
+                definition.setLazyInit(true);
+                deferredSteps++;
+            } else if (unselectedConfigurations.contains(beanName)
+                    || unselectedConfigurations.contains(definition.getFactoryBeanName())) {
+                definition.setLazyInit(true);
+                deferredBeans++;
+            }
+        }
+
+        log.info("{} 외 잡 {}개, 스텝 {}개, 그 외 빈 {}개를 필요할 때 만들도록 변경",
+                selected, deferredJobs, deferredSteps, deferredBeans);
+    }
+
+    // 고르지 않은 잡만 선언한 @Configuration 빈 이름
+    private Set<String> unselectedConfigurations(ConfigurableListableBeanFactory beanFactory, Set<String> selected) {
+        Set<String> unselected = new HashSet<>();
+        Set<String> inUse = new HashSet<>();
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (!Job.class.getName().equals(returnType(definition)) || definition.getFactoryBeanName() == null) {
+                continue;
+            }
+
+            if (selected.contains(beanName)) {
+                inUse.add(definition.getFactoryBeanName());
+            } else {
+                unselected.add(definition.getFactoryBeanName());
+            }
+        }
+
+        unselected.removeAll(inUse);
+        return unselected;
+    }
+
+    // @Bean 메서드로 정의된 빈만 대상 (스코프 프록시 등은 그대로)
+    private String returnType(BeanDefinition definition) {
+        if (!(definition instanceof AnnotatedBeanDefinition)) {
+            return null;
+        }
+
+        MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+        return factoryMethod == null ? null : factoryMethod.getReturnTypeName();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+
+// 잡 실행 직전(컨텍스트 준비 완료) 시점의 JVM 기동 시간, 힙 사용량, 싱글톤 수를 남김
+// SelectedJobBeanFactoryPostProcessor 적용 전후를 같은 잡으로 비교할 때 사용
+@Slf4j
+public class StartupMetricsListener implements ApplicationListener<ApplicationStartedEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        int singletons = event.getApplicationContext().getBeanFactory().getSingletonCount();
+
+        log.info("startup jvmUptime={}ms heapUsed={}MB singletons={}",
+                uptime, heap.getUsed() / (1024 * 1024), singletons);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.springbatch.support;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+
+// 작업(청크)마다 가상 스레드를 하나씩 띄우는 TaskExecutor
+// JDBC 대기가 대부분인 스텝에서 플랫폼 스레드가 놀지 않도록 하기 위함
+// 동시 실행 수는 concurrencyLimit 으로 제한 (커넥션 풀 크기에 맞추는 세마포어 역할)
+// 컴파일은 Java 11 기준이라 Thread.ofVirtual() 은 리플렉션으로 찾음
+// 지원하지 않는 JDK 면 생성자에서 예외 → 호출하는 쪽이 isSupported() 로 확인하고 플랫폼 스레드 executor 를 고름
+public class VirtualThreadTaskExecutor extends SimpleAsyncTaskExecutor {
+
+    public VirtualThreadTaskExecutor(String threadNamePrefix, int concurrencyLimit) {
+        super(threadNamePrefix);
+
+        ThreadFactory threadFactory = virtualThreadFactory(threadNamePrefix);
+        if (threadFactory == null) {
+            throw new IllegalStateException("가상 스레드를 지원하지 않는 JDK 입니다. isSupported() 를 먼저 확인하세요. (java.version="
+                    + System.getProperty("java.version") + ")");
+        }
+
+        setThreadFactory(threadFactory);
+        setConcurrencyLimit(concurrencyLimit);
+    }
+
+    public static boolean isSupported() {
+        return virtualThreadFactory("probe-") != null;
+    }
+
+    // Thread.ofVirtual().name(prefix, 0).factory()
+    private static ThreadFactory virtualThreadFactory(String threadNamePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.springbatch.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+// 파티션마다 무게(WEIGHT, 예: 처리할 건수)가 다를 때 무거운 파티션부터 실행하는 PartitionHandler
+// TaskExecutorPartitionHandler 는 순서 없이(HashSet) 제출해서 제일 큰 파티션이 마지막에 시작되면
+// 다른 스레드가 다 놀고 있는 동안 혼자 돌게 됨 -> 큰 것부터 시작하면 전체 시간이 가장 큰 파티션에 가까워짐
+// - 동시 실행 수는 taskExecutor 가 정함 (concurrencyLimit, ConnectionPoolGovernor permit)
+//   제한에 걸리면 execute 가 기다리기 때문에 제출한 순서대로 시작됨
+// - 파티션 하나가 실패해도 나머지는 끝까지 실행하고, 실패 여부는 매니저 스텝이 모아서 판단
+@Slf4j
+public class WeightedPartitionHandler extends AbstractPartitionHandler {
+
+    public static final String WEIGHT = "partition.weight";
+
+    private final Step step;
+    private final TaskExecutor taskExecutor;
+
+    public WeightedPartitionHandler(Step step, TaskExecutor taskExecutor) {
+        this.step = step;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution,
+                                          Set<StepExecution> partitionStepExecutions) throws Exception {
+        List<StepExecution> ordered = new ArrayList<>(partitionStepExecutions);
+        ordered.sort(Comparator.comparingLong(WeightedPartitionHandler::weight).reversed()
+                .thenComparing(StepExecution::getStepName));
+
+        Set<StepExecution> result = new HashSet<>();
+        List<Future<StepExecution>> tasks = new ArrayList<>();
+
+        for (StepExecution stepExecution : ordered) {
+            FutureTask<StepExecution> task = new FutureTask<>(() -> {
+                step.execute(stepExecution);
+                return stepExecution;
+            });
+
+            try {
+                log.debug("파티션 시작 : {} (weight={})", stepExecution.getStepName(), weight(stepExecution));
+                taskExecutor.execute(task);
+                tasks.add(task);
+            } catch (TaskRejectedException e) {
+                log.error("파티션을 실행하지 못했습니다 : {}", stepExecution.getStepName(), e);
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("TaskExecutor 가 파티션 실행을 거부했습니다."));
+                result.add(stepExecution);
+            }
+        }
+
+        for (Future<StepExecution> task : tasks) {
+            try {
+                result.add(task.get());
+            } catch (ExecutionException e) {
+                //step.execute 는 실패를 StepExecution 에 남기고 예외를 던지지 않으므로 여기까지 오는 건 예상 못한 오류
+                throw new IllegalStateException("파티션 실행 중 오류", e.getCause());
+            }
+        }
+
+        return result;
+    }
+
+    private static long weight(StepExecution stepExecution) {
+        return stepExecution.getExecutionContext().getLong(WEIGHT, 0L);
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.springbatch;
 
+import com.example.springbatch.support.InMemoryBatchConfigurer;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.test.JobLauncherTestUtils;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
 
 @Configuration
 @EnableBatchProcessing
@@ -16,4 +20,10 @@ public class TestConfiguration {
         return new JobLauncherTestUtils();
     }
 
-}
\ No newline at end of file
+    // 테스트는 배치 메타데이터를 메모리 DB 에 (업무 테이블은 그대로 H2 datasource)
+    @Bean
+    public InMemoryBatchConfigurer batchConfigurer(EntityManagerFactory entityManagerFactory) {
+        return new InMemoryBatchConfigurer(new JpaTransactionManager(entityManagerFactory));
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.example.springbatch.part3;
+
+import com.example.springbatch.TestConfiguration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+// 상주 모드처럼 한 컨텍스트에서 같은 잡을 두 번 실행해도 reader 가 처음부터 읽는지 확인
+@SpringBatchTest
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {ItemProcessorConfiguration.class, TestConfiguration.class})
+class ItemProcessorConfigurationTest {
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Test
+    void 같은_잡을_두번_실행해도_매번_전체를_읽는다() throws Exception {
+        // when
+        JobExecution first = jobLauncherTestUtils.launchJob(jobLauncherTestUtils.getUniqueJobParameters());
+        JobExecution second = jobLauncherTestUtils.launchJob(jobLauncherTestUtils.getUniqueJobParameters());
+
+        // then
+        for (JobExecution jobExecution : new JobExecution[] {first, second}) {
+            Assertions.assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+            StepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+            Assertions.assertThat(stepExecution.getReadCount()).isEqualTo(10);
+            //짝수 id 만 통과
+            Assertions.assertThat(stepExecution.getWriteCount()).isEqualTo(5);
+            Assertions.assertThat(stepExecution.getFilterCount()).isEqualTo(5);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.springbatch.part4;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LevelThresholdsTest {
+
+    private final LevelThresholds thresholds = User.Level.thresholds();
+
+    @Test
+    void 주문_금액으로_등급을_찾는다() {
+        Assertions.assertThat(thresholds.levelOf(0)).isEqualTo(User.Level.NORMAL);
+        Assertions.assertThat(thresholds.levelOf(199_999)).isEqualTo(User.Level.NORMAL);
+        Assertions.assertThat(thresholds.levelOf(200_000)).isEqualTo(User.Level.SILVER);
+        Assertions.assertThat(thresholds.levelOf(300_000)).isEqualTo(User.Level.GOLD);
+        Assertions.assertThat(thresholds.levelOf(499_999)).isEqualTo(User.Level.GOLD);
+        Assertions.assertThat(thresholds.levelOf(500_000)).isEqualTo(User.Level.VIP);
+        Assertions.assertThat(thresholds.levelOf(10_000_000)).isEqualTo(User.Level.VIP);
+    }
+
+    @Test
+    void 다음_등급_기준을_채우면_등급업_대상이다() {
+        Assertions.assertThat(thresholds.availableLevelUp(User.Level.NORMAL, 200_000)).isTrue();
+        Assertions.assertThat(thresholds.availableLevelUp(User.Level.NORMAL, 199_999)).isFalse();
+        Assertions.assertThat(thresholds.availableLevelUp(User.Level.SILVER, 300_000)).isTrue();
+        Assertions.assertThat(thresholds.availableLevelUp(User.Level.GOLD, 499_999)).isFalse();
+        Assertions.assertThat(thresholds.availableLevelUp(User.Level.VIP, 10_000_000)).isFalse();
+        Assertions.assertThat(thresholds.availableLevelUp(null, 10_000_000)).isFalse();
+    }
+
+    @Test
+    void 설정값으로_기준_금액을_바꾼다() {
+        LevelThresholds custom = LevelThresholds.parse("SILVER:100000, VIP:1000000");
+
+        Assertions.assertThat(custom.levelOf(100_000)).isEqualTo(User.Level.SILVER);
+        Assertions.assertThat(custom.levelOf(500_000)).isEqualTo(User.Level.GOLD);
+        Assertions.assertThat(custom.levelOf(999_999)).isEqualTo(User.Level.GOLD);
+        Assertions.assertThat(custom.levelOf(1_000_000)).isEqualTo(User.Level.VIP);
+    }
+
+    @Test
+    void 기준_금액이_중복되면_실패한다() {
+        Assertions.assertThatThrownBy(() -> LevelThresholds.parse("GOLD:200000"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
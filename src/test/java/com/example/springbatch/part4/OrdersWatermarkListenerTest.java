@@ -0,0 +1,126 @@
+package com.example.springbatch.part4;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Collections;
+import java.util.List;
+
+class OrdersWatermarkListenerTest {
+
+    private EmbeddedDatabase dataSource;
+    private JobExplorer jobExplorer;
+
+    private final JobInstance current = new JobInstance(2L, "userJob");
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table orders (id bigint primary key)");
+        jdbcTemplate.update("insert into orders (id) values (1000)");
+
+        jobExplorer = Mockito.mock(JobExplorer.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void 이전_watermark_에서_시퀀스_블록만큼_겹쳐서_다시_읽는다() {
+        // given : 이전 실행의 watermark 500, 블록 50 * 2
+        previousExecution(500L);
+
+        // when
+        StepExecution stepExecution = beforeStep(2);
+
+        // then : 늦게 커밋된 401~500 의 주문도 읽음
+        Assertions.assertThat(stepExecution.getExecutionContext().getLong(OrdersWatermarkListener.FROM)).isEqualTo(400L);
+        Assertions.assertThat(stepExecution.getExecutionContext().getLong(OrdersWatermarkListener.TO)).isEqualTo(1000L);
+    }
+
+    @Test
+    void watermark_가_겹침보다_작으면_처음부터_읽는다() {
+        // given
+        previousExecution(30L);
+
+        // when
+        StepExecution stepExecution = beforeStep(2);
+
+        // then
+        Assertions.assertThat(stepExecution.getExecutionContext().getLong(OrdersWatermarkListener.FROM)).isZero();
+    }
+
+    @Test
+    void 성공한_이전_실행이_없으면_전체를_읽는다() {
+        // given
+        Mockito.when(jobExplorer.getJobInstances("userJob", 0, 20)).thenReturn(List.of(current));
+
+        // when
+        StepExecution stepExecution = beforeStep(2);
+
+        // then
+        Assertions.assertThat(stepExecution.getExecutionContext().getLong(OrdersWatermarkListener.FROM)).isZero();
+        Assertions.assertThat(stepExecution.getExecutionContext().getLong(OrdersWatermarkListener.TO)).isEqualTo(1000L);
+    }
+
+    @Test
+    void 스텝이_성공하면_겹침_없이_상한을_다음_watermark_로_남긴다() {
+        // given
+        previousExecution(500L);
+        OrdersWatermarkListener listener = new OrdersWatermarkListener(jobExplorer, dataSource, 2);
+        StepExecution stepExecution = stepExecution();
+        listener.beforeStep(stepExecution);
+
+        // when
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        listener.afterStep(stepExecution);
+
+        // then
+        Assertions.assertThat(stepExecution.getJobExecution().getExecutionContext().getLong(OrdersWatermarkListener.WATERMARK))
+                .isEqualTo(1000L);
+    }
+
+    private void previousExecution(long watermark) {
+        JobInstance previous = new JobInstance(1L, "userJob");
+        JobExecution execution = new JobExecution(previous, 1L, new JobParameters(), null);
+        execution.setStatus(BatchStatus.COMPLETED);
+        execution.getExecutionContext().putLong(OrdersWatermarkListener.WATERMARK, watermark);
+
+        Mockito.when(jobExplorer.getJobInstances("userJob", 0, 20)).thenReturn(List.of(current, previous));
+        Mockito.when(jobExplorer.getJobExecutions(previous)).thenReturn(Collections.singletonList(execution));
+    }
+
+    private StepExecution beforeStep(int overlapBlocks) {
+        StepExecution stepExecution = stepExecution();
+        new OrdersWatermarkListener(jobExplorer, dataSource, overlapBlocks).beforeStep(stepExecution);
+        return stepExecution;
+    }
+
+    private StepExecution stepExecution() {
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString(OrdersWatermarkListener.INCREMENTAL, "true")
+                .toJobParameters();
+        JobExecution jobExecution = new JobExecution(current, 2L, jobParameters, null);
+        return jobExecution.createStepExecution("userJob_userLevelUpStep");
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.springbatch.part4;
+
+import com.example.springbatch.part5.Orders;
+import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserOrderTotalListenerTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = {User.class, Orders.class})
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    static class Config {
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from orders");
+        jdbcTemplate.update("delete from user_order_totals");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void 회원과_함께_저장한_주문이_커밋되면_합계가_생긴다() {
+        // when
+        User user = inTransaction(() -> userRepository.save(user("a", 1_000, 2_000)));
+
+        // then
+        Assertions.assertThat(total(user)).isEqualTo(3_000);
+    }
+
+    @Test
+    void 나중에_추가하거나_지운_주문도_합계에_반영한다() {
+        // given
+        User user = inTransaction(() -> userRepository.save(user("a", 1_000)));
+
+        // when : 주문 추가
+        Orders added = inTransaction(() -> {
+            Orders order = order(5_000);
+            order.assignUser(entityManager.getReference(User.class, user.getId()));
+            entityManager.persist(order);
+            return order;
+        });
+
+        // then
+        Assertions.assertThat(total(user)).isEqualTo(6_000);
+
+        // when : 주문 삭제
+        inTransaction(() -> {
+            entityManager.remove(entityManager.find(Orders.class, added.getId()));
+            return null;
+        });
+
+        // then
+        Assertions.assertThat(total(user)).isEqualTo(1_000);
+    }
+
+    @Test
+    void 롤백되면_합계도_바뀌지_않는다() {
+        // given
+        User user = inTransaction(() -> userRepository.save(user("a", 1_000)));
+
+        // when
+        Assertions.assertThatThrownBy(() -> inTransaction(() -> {
+            Orders order = order(5_000);
+            order.assignUser(entityManager.getReference(User.class, user.getId()));
+            entityManager.persist(order);
+            entityManager.flush();
+            throw new IllegalStateException("롤백");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // then
+        Assertions.assertThat(total(user)).isEqualTo(1_000);
+    }
+
+    @Test
+    void 등급_판단은_주문_목록을_읽지_않고_합계를_쓴다() {
+        // given
+        User saved = inTransaction(() -> userRepository.save(user("a", 200_000, 100_000)));
+
+        // when
+        User user = inTransaction(() -> {
+            User found = userRepository.findById(saved.getId()).orElseThrow();
+            found.getTotalAmount();
+            return found;
+        });
+
+        // then
+        Assertions.assertThat(Hibernate.isInitialized(user.getOrders())).isFalse();
+        Assertions.assertThat(user.getTotalAmount()).isEqualTo(300_000);
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return new TransactionTemplate(transactionManager).execute(status -> action.get());
+    }
+
+    private Integer total(User user) {
+        return jdbcTemplate.queryForObject("select total_amount from user_order_totals where user_id = ?", Integer.class, user.getId());
+    }
+
+    private User user(String username, int... amounts) {
+        List<Orders> orders = new ArrayList<>();
+        for (int amount : amounts) {
+            orders.add(order(amount));
+        }
+
+        return User.builder()
+                .username(username)
+                .orders(orders)
+                .build();
+    }
+
+    private Orders order(int amount) {
+        return Orders.builder()
+                .itemName("item")
+                .amount(amount)
+                .createdDate(LocalDate.of(2020, 11, 1))
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.springbatch.part4;
+
+import com.example.springbatch.support.WeightedPartitionHandler;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Map;
+
+class UserShardPartitionerTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table users (id bigint primary key)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void id_구간을_shards_개로_나누고_회원_수를_weight_로_넣는다() {
+        // given
+        insertUsers(1, 100);
+
+        // when
+        Map<String, ExecutionContext> partitions = new UserShardPartitioner(dataSource, 4, null).partition(1);
+
+        // then
+        Assertions.assertThat(partitions).containsOnlyKeys("shard0", "shard1", "shard2", "shard3");
+        assertRange(partitions.get("shard0"), 1, 25);
+        assertRange(partitions.get("shard3"), 76, 100);
+        Assertions.assertThat(partitions.get("shard1").getLong(WeightedPartitionHandler.WEIGHT)).isEqualTo(25);
+    }
+
+    @Test
+    void 회원이_없는_shard_는_파티션을_만들지_않는다() {
+        // given : 1~10, 91~100 만 있음 → 구간 1~25, 26~50, 51~75, 76~100
+        insertUsers(1, 10);
+        insertUsers(91, 100);
+
+        // when
+        Map<String, ExecutionContext> partitions = new UserShardPartitioner(dataSource, 4, null).partition(1);
+
+        // then
+        Assertions.assertThat(partitions).containsOnlyKeys("shard0", "shard3");
+        Assertions.assertThat(partitions.get("shard0").getLong(WeightedPartitionHandler.WEIGHT)).isEqualTo(10);
+        Assertions.assertThat(partitions.get("shard3").getLong(WeightedPartitionHandler.WEIGHT)).isEqualTo(10);
+    }
+
+    @Test
+    void 회원이_없으면_파티션이_없다() {
+        // when
+        Map<String, ExecutionContext> partitions = new UserShardPartitioner(dataSource, 4, null).partition(1);
+
+        // then
+        Assertions.assertThat(partitions).isEmpty();
+    }
+
+    @Test
+    void tenants_를_주면_그_shard_만_만든다() {
+        // given
+        insertUsers(1, 100);
+
+        // when
+        Map<String, ExecutionContext> partitions = new UserShardPartitioner(dataSource, 4, " 3, 0 ,").partition(1);
+
+        // then
+        Assertions.assertThat(partitions).containsOnlyKeys("shard0", "shard3");
+        assertRange(partitions.get("shard3"), 76, 100);
+    }
+
+    @Test
+    void 잘못된_tenants_나_shards_는_IllegalArgumentException() {
+        Assertions.assertThatThrownBy(() -> new UserShardPartitioner(dataSource, 4, "4"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("tenant=4");
+        Assertions.assertThatThrownBy(() -> new UserShardPartitioner(dataSource, 4, "a"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("tenant=a");
+        Assertions.assertThatThrownBy(() -> new UserShardPartitioner(dataSource, 0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> UserShardPartitioner.parseShards("eight"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("shards=eight");
+        Assertions.assertThat(UserShardPartitioner.parseShards(" 8 ")).isEqualTo(8);
+    }
+
+    @Test
+    void 증분_모드면_매니저_스텝의_주문_범위를_파티션마다_넘겨준다() {
+        // given
+        insertUsers(1, 10);
+        UserShardPartitioner partitioner = new UserShardPartitioner(dataSource, 2, null);
+
+        StepExecution managerStep = new StepExecution("userLevelUpStep", new JobExecution(1L));
+        managerStep.getExecutionContext().putLong(OrdersWatermarkListener.FROM, 100L);
+        managerStep.getExecutionContext().putLong(OrdersWatermarkListener.TO, 200L);
+
+        // when
+        partitioner.beforeStep(managerStep);
+        Map<String, ExecutionContext> partitions = partitioner.partition(1);
+
+        // then
+        Assertions.assertThat(partitions).hasSize(2)
+                .allSatisfy((name, context) -> {
+                    Assertions.assertThat(context.getLong(OrdersWatermarkListener.FROM)).isEqualTo(100L);
+                    Assertions.assertThat(context.getLong(OrdersWatermarkListener.TO)).isEqualTo(200L);
+                });
+    }
+
+    @Test
+    void 증분_모드가_아니면_주문_범위를_넣지_않는다() {
+        // given
+        insertUsers(1, 10);
+        UserShardPartitioner partitioner = new UserShardPartitioner(dataSource, 2, null);
+
+        // when
+        partitioner.beforeStep(new StepExecution("userLevelUpStep", new JobExecution(1L)));
+        Map<String, ExecutionContext> partitions = partitioner.partition(1);
+
+        // then
+        Assertions.assertThat(partitions.values())
+                .allSatisfy(context -> Assertions.assertThat(context.containsKey(OrdersWatermarkListener.FROM)).isFalse());
+    }
+
+    private void insertUsers(long from, long to) {
+        for (long id = from; id <= to; id++) {
+            jdbcTemplate.update("insert into users (id) values (?)", id);
+        }
+    }
+
+    private void assertRange(ExecutionContext context, long minId, long maxId) {
+        Assertions.assertThat(context.getLong(UserShardPartitioner.MIN_ID)).isEqualTo(minId);
+        Assertions.assertThat(context.getLong(UserShardPartitioner.MAX_ID)).isEqualTo(maxId);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.springbatch.part5;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class OrderStatisticsColumnarItemWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void 청크마다_row_group_을_쓰고_footer_에_전체_건수를_남긴다() throws Exception {
+        // given
+        Path file = tempDir.resolve("out.col");
+        OrderStatisticsColumnarItemWriter itemWriter = itemWriter(file);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // when
+        itemWriter.open(executionContext);
+        itemWriter.write(Arrays.asList(statistics("300", "2020-11-01"), statistics("100", "2020-11-02")));
+        itemWriter.update(executionContext);
+        itemWriter.write(Arrays.asList(statistics("500", "2020-11-05")));
+        itemWriter.update(executionContext);
+        itemWriter.close();
+
+        // then
+        ColumnarFile columnar = read(file);
+        Assertions.assertThat(columnar.rowGroups).hasSize(2);
+        Assertions.assertThat(columnar.rowGroups.get(0).min).isEqualTo(100);
+        Assertions.assertThat(columnar.rowGroups.get(0).max).isEqualTo(300);
+        Assertions.assertThat(columnar.amounts()).containsExactly(300L, 100L, 500L);
+        Assertions.assertThat(columnar.dates()).containsExactly(
+                LocalDate.parse("2020-11-01"), LocalDate.parse("2020-11-02"), LocalDate.parse("2020-11-05"));
+        Assertions.assertThat(columnar.footerRows).isEqualTo(3);
+        Assertions.assertThat(columnar.footerRowGroups).isEqualTo(2);
+    }
+
+    @Test
+    void 재시작하면_커밋되지_않은_row_group_은_버리고_건수를_이어서_센다() throws Exception {
+        // given : 두 번째 청크가 update 전에 멈춘 상황
+        Path file = tempDir.resolve("out.col");
+        OrderStatisticsColumnarItemWriter first = itemWriter(file);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        first.open(executionContext);
+        first.write(Arrays.asList(statistics("300", "2020-11-01"), statistics("100", "2020-11-02")));
+        first.update(executionContext);
+        first.write(Arrays.asList(statistics("999", "2020-11-03")));
+        first.close();
+
+        // when
+        OrderStatisticsColumnarItemWriter restarted = itemWriter(file);
+        restarted.open(executionContext);
+        restarted.write(Arrays.asList(statistics("700", "2020-11-04")));
+        restarted.update(executionContext);
+        restarted.close();
+
+        // then
+        ColumnarFile columnar = read(file);
+        Assertions.assertThat(columnar.amounts()).containsExactly(300L, 100L, 700L);
+        Assertions.assertThat(columnar.footerRows).isEqualTo(3);
+        Assertions.assertThat(columnar.footerRowGroups).isEqualTo(2);
+    }
+
+    private OrderStatisticsColumnarItemWriter itemWriter(Path file) {
+        return new OrderStatisticsColumnarItemWriter("test", new FileSystemResource(file));
+    }
+
+    private OrderStatistics statistics(String amount, String date) {
+        return OrderStatistics.builder()
+                .amount(amount)
+                .date(LocalDate.parse(date))
+                .build();
+    }
+
+    // 파일 형식은 OrderStatisticsColumnarItemWriter 주석 참고
+    private ColumnarFile read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        ColumnarFile columnar = new ColumnarFile();
+
+        byte[] magic = new byte[4];
+        in.readFully(magic);
+        Assertions.assertThat(magic).isEqualTo(OrderStatisticsColumnarItemWriter.MAGIC);
+        Assertions.assertThat(in.read()).isEqualTo(OrderStatisticsColumnarItemWriter.VERSION);
+
+        //footer 는 long + int + MAGIC
+        while (in.available() > 16) {
+            in.readInt();
+            RowGroup rowGroup = new RowGroup();
+            int rows = in.readInt();
+            rowGroup.min = in.readLong();
+            rowGroup.max = in.readLong();
+            for (int i = 0; i < rows; i++) {
+                rowGroup.amounts.add(in.readLong());
+            }
+
+            long epochDay = in.readLong();
+            in.readLong();
+            for (int i = 0; i < rows; i++) {
+                epochDay += readVarLong(in);
+                rowGroup.dates.add(LocalDate.ofEpochDay(epochDay));
+            }
+            columnar.rowGroups.add(rowGroup);
+        }
+
+        columnar.footerRows = in.readLong();
+        columnar.footerRowGroups = in.readInt();
+        in.readFully(magic);
+        Assertions.assertThat(magic).isEqualTo(OrderStatisticsColumnarItemWriter.MAGIC);
+
+        return columnar;
+    }
+
+    private long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static class ColumnarFile {
+        private final List<RowGroup> rowGroups = new ArrayList<>();
+        private long footerRows;
+        private int footerRowGroups;
+
+        private List<Long> amounts() {
+            List<Long> amounts = new ArrayList<>();
+            rowGroups.forEach(rowGroup -> amounts.addAll(rowGroup.amounts));
+            return amounts;
+        }
+
+        private List<LocalDate> dates() {
+            List<LocalDate> dates = new ArrayList<>();
+            rowGroups.forEach(rowGroup -> dates.addAll(rowGroup.dates));
+            return dates;
+        }
+    }
+
+    private static class RowGroup {
+        private final List<Long> amounts = new ArrayList<>();
+        private final List<LocalDate> dates = new ArrayList<>();
+        private long min;
+        private long max;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class BisectingItemWriterTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private StepExecution stepExecution;
+
+    private final List<Integer> writeSizes = new ArrayList<>();
+    private final List<Integer> skippedInWrite = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table item (id int primary key)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+        StepSynchronizationManager.register(stepExecution);
+    }
+
+    @AfterEach
+    void tearDown() {
+        StepSynchronizationManager.close();
+        dataSource.shutdown();
+    }
+
+    @Test
+    void 실패한_아이템만_log_n_번의_쓰기로_골라내고_나머지는_청크와_함께_커밋한다() {
+        // given : 16건 중 id 11 은 이미 있어서 PK 위반
+        jdbcTemplate.update("insert into item (id) values (11)");
+        BisectingItemWriter<Integer> writer = writer(3);
+
+        // when
+        writeChunk(writer, ids(1, 16));
+
+        // then : 실패한 쪽만 16 → 8 → 4 → 2 → 1 로 나눠 다시 씀 (하나씩 다시 쓰면 16번)
+        Assertions.assertThat(writeSizes).containsExactly(16, 8, 8, 4, 2, 2, 1, 1, 4);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from item", Integer.class)).isEqualTo(16);
+        Assertions.assertThat(skippedInWrite).containsExactly(11);
+        Assertions.assertThat(stepExecution.getWriteCount()).isEqualTo(15);
+        Assertions.assertThat(stepExecution.getWriteSkipCount()).isEqualTo(1);
+    }
+
+    @Test
+    void 청크가_롤백되면_나눠서_쓴_것도_skip_도_남지_않는다() {
+        // given
+        jdbcTemplate.update("insert into item (id) values (3)");
+        BisectingItemWriter<Integer> writer = writer(3);
+
+        // when : 쓰기는 성공했지만 청크의 다른 작업이 실패
+        Assertions.assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            writer.beforeChunk(chunkContext());
+            write(writer, ids(1, 8));
+            throw new IllegalStateException("청크 실패");
+        })).isInstanceOf(IllegalStateException.class);
+        writer.afterChunkError(chunkContext());
+
+        // then
+        Assertions.assertThat(jdbcTemplate.queryForList("select id from item", Integer.class)).containsExactly(3);
+        Assertions.assertThat(skippedInWrite).isEmpty();
+        Assertions.assertThat(stepExecution.getWriteSkipCount()).isZero();
+    }
+
+    @Test
+    void 스텝의_skip_건수까지_합쳐_한도를_넘으면_SkipLimitExceededException() {
+        // given : 이미 스텝에서 3건을 건너뜀
+        jdbcTemplate.update("insert into item (id) values (5)");
+        stepExecution.setProcessSkipCount(3);
+        BisectingItemWriter<Integer> writer = writer(3);
+
+        // when & then
+        Assertions.assertThatThrownBy(() -> writeChunk(writer, ids(1, 8)))
+                .isInstanceOf(SkipLimitExceededException.class);
+        Assertions.assertThat(jdbcTemplate.queryForList("select id from item", Integer.class)).containsExactly(5);
+    }
+
+    @Test
+    void 건너뛸_수_없는_예외는_나누지_않고_그대로_던진다() {
+        // given
+        ItemWriter<Integer> failing = items -> {
+            writeSizes.add(items.size());
+            throw new IllegalArgumentException("잘못된 아이템");
+        };
+        BisectingItemWriter<Integer> writer = new BisectingItemWriter<>(failing, dataSource,
+                new LimitCheckingItemSkipPolicy(3, Map.of(DataAccessException.class, true)));
+
+        // when & then
+        Assertions.assertThatThrownBy(() -> writeChunk(writer, ids(1, 8)))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThat(writeSizes).containsExactly(8);
+    }
+
+    @Test
+    void 청크_트랜잭션_밖에서는_사용할_수_없다() {
+        Assertions.assertThatThrownBy(() -> writer(3).write(ids(1, 2)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private BisectingItemWriter<Integer> writer(int skipLimit) {
+        JdbcBatchItemWriter<Integer> jdbcWriter = new JdbcBatchItemWriterBuilder<Integer>()
+                .dataSource(dataSource)
+                .sql("insert into item (id) values (?)")
+                .itemPreparedStatementSetter((item, ps) -> ps.setInt(1, item))
+                .build();
+        jdbcWriter.afterPropertiesSet();
+
+        ItemWriter<Integer> counting = items -> {
+            writeSizes.add(items.size());
+            jdbcWriter.write(items);
+        };
+
+        BisectingItemWriter<Integer> writer = new BisectingItemWriter<>(counting, dataSource,
+                new LimitCheckingItemSkipPolicy(skipLimit, Map.of(DataAccessException.class, true)));
+        writer.setSkipListeners(List.of(new SkipListener<Object, Integer>() {
+            @Override
+            public void onSkipInRead(Throwable t) {
+            }
+
+            @Override
+            public void onSkipInWrite(Integer item, Throwable t) {
+                skippedInWrite.add(item);
+            }
+
+            @Override
+            public void onSkipInProcess(Object item, Throwable t) {
+            }
+        }));
+        return writer;
+    }
+
+    // TaskletStep 처럼 청크 트랜잭션 안에서 쓰고, 커밋 뒤에 afterChunk (스텝이 writeCount 를 먼저 올림)
+    private void writeChunk(BisectingItemWriter<Integer> writer, List<Integer> items) {
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.beforeChunk(chunkContext());
+            write(writer, items);
+            stepExecution.setWriteCount(stepExecution.getWriteCount() + items.size());
+        });
+        writer.afterChunk(chunkContext());
+    }
+
+    private void write(BisectingItemWriter<Integer> writer, List<Integer> items) {
+        try {
+            writer.write(items);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ChunkContext chunkContext() {
+        return new ChunkContext(new StepContext(stepExecution));
+    }
+
+    private List<Integer> ids(int from, int to) {
+        return IntStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+}
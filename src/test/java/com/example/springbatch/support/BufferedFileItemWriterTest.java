@@ -0,0 +1,166 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class BufferedFileItemWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void 버퍼보다_많은_라인도_순서대로_쓴다() throws Exception {
+        // given
+        Path file = tempDir.resolve("out.csv");
+        BufferedFileItemWriter<String> itemWriter = itemWriter(file, false);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // when
+        itemWriter.open(executionContext);
+        itemWriter.write(Arrays.asList("a", "b", "c"));
+        itemWriter.update(executionContext);
+        itemWriter.write(Arrays.asList("d", "e"));
+        itemWriter.update(executionContext);
+        itemWriter.close();
+
+        // then
+        Assertions.assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .containsExactly("header", "a", "b", "c", "d", "e", "footer");
+    }
+
+    @Test
+    void 백그라운드_쓰기도_같은_결과를_낸다() throws Exception {
+        // given
+        Path file = tempDir.resolve("out.csv");
+        BufferedFileItemWriter<String> itemWriter = itemWriter(file, true);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // when
+        itemWriter.open(executionContext);
+        itemWriter.write(Arrays.asList("a", "b", "c", "d", "e"));
+        itemWriter.update(executionContext);
+        itemWriter.close();
+
+        // then
+        Assertions.assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .containsExactly("header", "a", "b", "c", "d", "e", "footer");
+    }
+
+    @Test
+    void 백그라운드_쓰기를_기다리지_않고_다음_청크를_처리한다() throws Exception {
+        // given : 백그라운드 쓰기를 latch 로 붙잡아 둠
+        Path file = tempDir.resolve("out.csv");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        BufferedFileItemWriter<String> itemWriter = new BufferedFileItemWriter<>("test", new FileSystemResource(file), item -> item);
+        itemWriter.setLineSeparator("\n");
+        itemWriter.setBufferSize(8);
+        itemWriter.setAsync(true);
+        itemWriter.setBackgroundExecutor(task -> new Thread(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            task.run();
+        }).start());
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // when : 첫 버퍼(청크 1~2)가 백그라운드로 넘어간 뒤에도 청크 3, 4 를 쓰고 커밋
+        itemWriter.open(executionContext);
+        itemWriter.write(Arrays.asList("a", "b"));
+        itemWriter.update(executionContext);
+        itemWriter.write(Arrays.asList("c", "d"));
+        itemWriter.update(executionContext);
+        itemWriter.write(Arrays.asList("e"));
+        itemWriter.update(executionContext);
+        started.await(5, TimeUnit.SECONDS);
+        itemWriter.write(Arrays.asList("f"));
+        itemWriter.update(executionContext);
+
+        // then : 커밋된 위치는 청크 4 끝이지만 파일에는 아직 아무것도 없음
+        Assertions.assertThat(executionContext.getLong("test.position")).isEqualTo(12);
+        Assertions.assertThat(Files.size(file)).isZero();
+
+        // when
+        release.countDown();
+        itemWriter.close();
+
+        // then
+        Assertions.assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .containsExactly("a", "b", "c", "d", "e", "f");
+    }
+
+    @Test
+    void fsync_하는_청크에서는_버퍼를_파일까지_쓴다() throws Exception {
+        // given
+        Path file = tempDir.resolve("out.csv");
+        BufferedFileItemWriter<String> itemWriter = itemWriter(file, true);
+        itemWriter.setBufferSize(1024);
+        itemWriter.setFsyncPolicy(BufferedFileItemWriter.FsyncPolicy.EVERY_N_CHUNKS);
+        itemWriter.setFsyncInterval(2);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // when
+        itemWriter.open(executionContext);
+        itemWriter.write(Arrays.asList("a"));
+        itemWriter.update(executionContext);
+
+        // then : 버퍼에만 있음
+        Assertions.assertThat(Files.size(file)).isZero();
+
+        // when
+        itemWriter.write(Arrays.asList("b"));
+        itemWriter.update(executionContext);
+
+        // then
+        Assertions.assertThat(Files.readAllLines(file, StandardCharsets.UTF_8)).containsExactly("header", "a", "b");
+        itemWriter.close();
+    }
+
+    @Test
+    void 재시작하면_마지막_청크_위치부터_이어_쓴다() throws Exception {
+        // given : 첫 청크까지 커밋되고 두 번째 청크를 쓰다가 죽은 상황
+        Path file = tempDir.resolve("out.csv");
+        BufferedFileItemWriter<String> first = itemWriter(file, false);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        first.open(executionContext);
+        first.write(Arrays.asList("a", "b"));
+        first.update(executionContext);
+        first.write(Arrays.asList("lost"));
+        first.close();
+
+        // when
+        BufferedFileItemWriter<String> restarted = itemWriter(file, false);
+        restarted.open(executionContext);
+        restarted.write(Arrays.asList("c"));
+        restarted.update(executionContext);
+        restarted.close();
+
+        // then
+        Assertions.assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .containsExactly("header", "a", "b", "c", "footer");
+    }
+
+    private BufferedFileItemWriter<String> itemWriter(Path file, boolean async) {
+        BufferedFileItemWriter<String> itemWriter = new BufferedFileItemWriter<>("test", new FileSystemResource(file), item -> item);
+        itemWriter.setLineSeparator("\n");
+        itemWriter.setBufferSize(4);
+        itemWriter.setAsync(async);
+        itemWriter.setHeaderCallback(writer -> writer.write("header"));
+        itemWriter.setFooterCallback(writer -> writer.write("footer\n"));
+        return itemWriter;
+    }
+}
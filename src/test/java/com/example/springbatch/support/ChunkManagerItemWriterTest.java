@@ -0,0 +1,76 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class ChunkManagerItemWriterTest {
+
+    private final InMemoryChunkChannel<Integer, String> channel = new InMemoryChunkChannel<>();
+    private LocalChunkWorkerPool<Integer, String> workerPool;
+
+    @AfterEach
+    void tearDown() {
+        workerPool.stop();
+    }
+
+    @Test
+    void 워커가_처리한_결과를_원래_순서대로_쓴다() throws Exception {
+        // given
+        workerPool = new LocalChunkWorkerPool<>("test", 3, channel,
+                item -> item % 2 == 0 ? "item" + item : null);
+        workerPool.start();
+
+        List<String> written = new ArrayList<>();
+        ChunkManagerItemWriter<Integer, String> itemWriter =
+                new ChunkManagerItemWriter<>(channel, written::addAll, 2, Duration.ofSeconds(5));
+
+        // when
+        itemWriter.write(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8));
+
+        // then
+        Assertions.assertThat(written).containsExactly("item2", "item4", "item6", "item8");
+        Assertions.assertThat(channel.pendingRequests()).isZero();
+    }
+
+    @Test
+    void 워커_처리가_실패하면_쓰지_않고_예외를_던진다() {
+        // given
+        workerPool = new LocalChunkWorkerPool<>("test", 2, channel, item -> {
+            if (item == 3) {
+                throw new IllegalArgumentException("bad item");
+            }
+            return "item" + item;
+        });
+        workerPool.start();
+
+        List<String> written = new ArrayList<>();
+        ChunkManagerItemWriter<Integer, String> itemWriter =
+                new ChunkManagerItemWriter<>(channel, written::addAll, 2, Duration.ofSeconds(5));
+
+        // when, then
+        Assertions.assertThatThrownBy(() -> itemWriter.write(Arrays.asList(1, 2, 3, 4)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bad item");
+        Assertions.assertThat(written).isEmpty();
+    }
+
+    @Test
+    void 워커가_없으면_응답_시간_초과로_실패한다() {
+        // given
+        workerPool = new LocalChunkWorkerPool<>("test", 0, channel, item -> "item" + item);
+
+        ChunkManagerItemWriter<Integer, String> itemWriter =
+                new ChunkManagerItemWriter<>(channel, items -> {}, 10, Duration.ofMillis(100));
+
+        // when, then
+        Assertions.assertThatThrownBy(() -> itemWriter.write(Arrays.asList(1, 2)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("시간 초과");
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+class ExternalSortTaskletTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void run_여러개로_나눠도_key_순으로_합치고_같은_key_는_원래_순서를_유지한다() throws Exception {
+        // given
+        String csv = "이름,나이\n" + "c,1\n" + "a,1\n" + "b,1\n" + "a,2\n" + "c,2\n";
+        ExternalSortTasklet tasklet = new ExternalSortTasklet(
+                new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)), line -> line.split(",", 2)[0], "sorted");
+        tasklet.setLinesToSkip(1);
+        tasklet.setRunSize(2);
+        tasklet.setDirectory(tempDir);
+
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+        // when
+        tasklet.execute(stepExecution.createStepContribution(), new ChunkContext(new StepContext(stepExecution)));
+
+        // then
+        String sorted = stepExecution.getJobExecution().getExecutionContext().getString("sorted");
+        Assertions.assertThat(Files.readAllLines(Paths.get(sorted), StandardCharsets.UTF_8))
+                .containsExactly("이름,나이", "a,1", "a,2", "b,1", "c,1", "c,2");
+    }
+
+    @Test
+    void 잡이_성공하면_정렬된_파일을_지우고_실패하면_재시작용으로_남긴다() throws Exception {
+        // given
+        ExternalSortTasklet tasklet = new ExternalSortTasklet(
+                new ByteArrayResource("b\na\n".getBytes(StandardCharsets.UTF_8)), line -> line, "sorted");
+        tasklet.setDirectory(tempDir);
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        tasklet.execute(stepExecution.createStepContribution(), new ChunkContext(new StepContext(stepExecution)));
+        Path sorted = Paths.get(stepExecution.getJobExecution().getExecutionContext().getString("sorted"));
+
+        // when : 실패
+        stepExecution.getJobExecution().setStatus(BatchStatus.FAILED);
+        tasklet.cleanupListener().afterJob(stepExecution.getJobExecution());
+
+        // then
+        Assertions.assertThat(sorted).exists();
+
+        // when : 재시작 후 성공
+        stepExecution.getJobExecution().setStatus(BatchStatus.COMPLETED);
+        tasklet.cleanupListener().afterJob(stepExecution.getJobExecution());
+
+        // then
+        Assertions.assertThat(sorted).doesNotExist();
+    }
+
+    @Test
+    void 재시작하면_남아_있는_정렬_파일을_쓰고_없어졌으면_다시_정렬한다() throws Exception {
+        // given
+        ExternalSortTasklet tasklet = new ExternalSortTasklet(
+                new ByteArrayResource("b\na\n".getBytes(StandardCharsets.UTF_8)), line -> line, "sorted");
+        tasklet.setDirectory(tempDir);
+        JobExecution failed = MetaDataInstanceFactory.createJobExecution("savePersonJob", 7L, 1L);
+        execute(tasklet, failed);
+        Path sorted = Paths.get(failed.getExecutionContext().getString("sorted"));
+        Files.write(sorted, List.of("이전 실행"), StandardCharsets.UTF_8);
+
+        // when : 같은 잡 인스턴스의 재시작 (다른 프로세스라서 ExecutionContext 도 새로)
+        JobExecution restarted = MetaDataInstanceFactory.createJobExecution("savePersonJob", 7L, 2L);
+        execute(tasklet, restarted);
+
+        // then : 이전 실행이 만든 파일을 그대로 씀
+        Assertions.assertThat(restarted.getExecutionContext().getString("sorted")).isEqualTo(sorted.toString());
+        Assertions.assertThat(Files.readAllLines(sorted, StandardCharsets.UTF_8)).containsExactly("이전 실행");
+
+        // when : 파일이 없어진 뒤 재시작
+        Files.delete(sorted);
+        execute(tasklet, MetaDataInstanceFactory.createJobExecution("savePersonJob", 7L, 3L));
+
+        // then : 다시 정렬
+        Assertions.assertThat(Files.readAllLines(sorted, StandardCharsets.UTF_8)).containsExactly("a", "b");
+        Assertions.assertThat(tempDir.resolve(sorted.getFileName() + ".tmp")).doesNotExist();
+    }
+
+    @Test
+    void reader_와_같은_tokenizer_로_key_를_뽑으면_따옴표_안의_쉼표도_이름으로_본다() throws Exception {
+        // given
+        String csv = "이름,나이,거주지\n" + "\"b,a\",1,서울\n" + "b,2,부산\n" + "\"b,a\",3,인천\n" + "ba,4,대구\n";
+        DelimitedLineTokenizer lineTokenizer = new DelimitedLineTokenizer();
+        lineTokenizer.setNames("name", "age", "address");
+        ExternalSortTasklet tasklet = new ExternalSortTasklet(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)),
+                line -> lineTokenizer.tokenize(line).readString("name"), "sorted");
+        tasklet.setLinesToSkip(1);
+        tasklet.setDirectory(tempDir);
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+        // when
+        tasklet.execute(stepExecution.createStepContribution(), new ChunkContext(new StepContext(stepExecution)));
+
+        // then : 같은 이름("b,a")끼리 붙어 있음
+        String sorted = stepExecution.getJobExecution().getExecutionContext().getString("sorted");
+        Assertions.assertThat(Files.readAllLines(Paths.get(sorted), StandardCharsets.UTF_8))
+                .containsExactly("이름,나이,거주지", "b,2,부산", "\"b,a\",1,서울", "\"b,a\",3,인천", "ba,4,대구");
+    }
+
+    private void execute(ExternalSortTasklet tasklet, JobExecution jobExecution) throws Exception {
+        StepExecution stepExecution = jobExecution.createStepExecution("sortPersonStep");
+        tasklet.execute(stepExecution.createStepContribution(), new ChunkContext(new StepContext(stepExecution)));
+    }
+}
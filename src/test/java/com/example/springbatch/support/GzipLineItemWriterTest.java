@@ -0,0 +1,80 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+class GzipLineItemWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void 청크마다_붙인_gzip_member_를_한번에_풀_수_있다() throws Exception {
+        // given
+        Path file = tempDir.resolve("out.csv.gz");
+        GzipLineItemWriter<String> itemWriter = itemWriter(file);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // when
+        itemWriter.open(executionContext);
+        itemWriter.write(Arrays.asList("a", "b"));
+        itemWriter.update(executionContext);
+        itemWriter.write(Arrays.asList("c"));
+        itemWriter.update(executionContext);
+        itemWriter.close();
+
+        // then
+        Assertions.assertThat(readLines(file)).containsExactly("header", "a", "b", "c");
+    }
+
+    @Test
+    void 재시작하면_커밋되지_않은_청크는_버리고_이어_쓴다() throws Exception {
+        // given : 두 번째 청크가 update 전에 멈춘 상황
+        Path file = tempDir.resolve("out.csv.gz");
+        GzipLineItemWriter<String> first = itemWriter(file);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        first.open(executionContext);
+        first.write(Arrays.asList("a", "b"));
+        first.update(executionContext);
+        first.write(Arrays.asList("lost"));
+        first.close();
+
+        // when
+        GzipLineItemWriter<String> restarted = itemWriter(file);
+        restarted.open(executionContext);
+        restarted.write(Arrays.asList("c"));
+        restarted.update(executionContext);
+        restarted.close();
+
+        // then
+        Assertions.assertThat(readLines(file)).containsExactly("header", "a", "b", "c");
+    }
+
+    private GzipLineItemWriter<String> itemWriter(Path file) {
+        GzipLineItemWriter<String> itemWriter = new GzipLineItemWriter<>("test", new FileSystemResource(file), item -> item);
+        itemWriter.setLineSeparator("\n");
+        itemWriter.setHeaderCallback(writer -> writer.write("header"));
+        return itemWriter;
+    }
+
+    private List<String> readLines(Path file) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class InMemoryBatchConfigurerTest {
+
+    private static final String JOB_NAME = "inMemoryTestJob";
+
+    @TempDir
+    Path tempDir;
+
+    private final List<InMemoryBatchConfigurer> configurers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        configurers.forEach(InMemoryBatchConfigurer::destroy);
+    }
+
+    @Test
+    void 스냅샷에서_복원하면_이전_실행의_JobInstance_를_찾는다() throws Exception {
+        // given
+        Path snapshot = tempDir.resolve("batch-meta.sql");
+        InMemoryBatchConfigurer first = configurer(snapshot);
+        JobExecution jobExecution = run(first, parameters("2020-11"));
+
+        // when
+        first.snapshot();
+        InMemoryBatchConfigurer restored = configurer(snapshot);
+
+        // then
+        Assertions.assertThat(Files.exists(snapshot)).isTrue();
+        Assertions.assertThat(Files.exists(snapshot.resolveSibling("batch-meta.sql.tmp"))).isFalse();
+
+        List<JobInstance> jobInstances = restored.getJobExplorer().getJobInstances(JOB_NAME, 0, 10);
+        Assertions.assertThat(jobInstances).extracting(JobInstance::getId)
+                .containsExactly(jobExecution.getJobInstance().getId());
+
+        JobExecution restoredExecution = restored.getJobExplorer().getJobExecution(jobExecution.getId());
+        Assertions.assertThat(restoredExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Assertions.assertThat(restoredExecution.getStepExecutions()).hasSize(1);
+    }
+
+    @Test
+    void 복원한_저장소에서_같은_파라메터로_다시_실행하면_이미_완료된_잡이다() throws Exception {
+        // given
+        Path snapshot = tempDir.resolve("batch-meta.sql");
+        InMemoryBatchConfigurer first = configurer(snapshot);
+        run(first, parameters("2020-11"));
+        first.snapshot();
+
+        // when
+        InMemoryBatchConfigurer restored = configurer(snapshot);
+
+        // then : 시퀀스도 복원되어 새 실행의 id 가 겹치지 않음
+        Assertions.assertThatThrownBy(() -> run(restored, parameters("2020-11")))
+                .isInstanceOf(JobInstanceAlreadyCompleteException.class);
+
+        JobExecution next = run(restored, parameters("2020-12"));
+        Assertions.assertThat(restored.getJobExplorer().getJobInstances(JOB_NAME, 0, 10)).hasSize(2);
+        Assertions.assertThat(next.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+    }
+
+    @Test
+    void 종료하면_스냅샷을_남긴다() throws Exception {
+        // given
+        Path snapshot = tempDir.resolve("batch-meta.sql");
+        InMemoryBatchConfigurer first = configurer(snapshot);
+        run(first, parameters("2020-11"));
+
+        // when
+        first.destroy();
+
+        // then
+        InMemoryBatchConfigurer restored = configurer(snapshot);
+        Assertions.assertThat(restored.getJobExplorer().getJobInstances(JOB_NAME, 0, 10)).hasSize(1);
+    }
+
+    @Test
+    void 스냅샷이_없으면_저장소끼리_메타데이터를_공유하지_않는다() throws Exception {
+        // given
+        InMemoryBatchConfigurer first = configurer(null);
+        InMemoryBatchConfigurer second = configurer(null);
+
+        // when
+        run(first, parameters("2020-11"));
+
+        // then
+        Assertions.assertThat(first.getJobExplorer().getJobInstances(JOB_NAME, 0, 10)).hasSize(1);
+        Assertions.assertThat(second.getJobExplorer().getJobInstances(JOB_NAME, 0, 10)).isEmpty();
+    }
+
+    private InMemoryBatchConfigurer configurer(Path snapshot) throws Exception {
+        InMemoryBatchConfigurer configurer = new InMemoryBatchConfigurer(new ResourcelessTransactionManager(), snapshot, Duration.ZERO);
+        configurer.afterPropertiesSet();
+        configurers.add(configurer);
+        return configurer;
+    }
+
+    private JobExecution run(InMemoryBatchConfigurer configurer, JobParameters jobParameters) throws Exception {
+        StepBuilderFactory stepBuilderFactory = new StepBuilderFactory(configurer.getJobRepository(), configurer.getTransactionManager());
+        Job job = new JobBuilderFactory(configurer.getJobRepository()).get(JOB_NAME)
+                .start(stepBuilderFactory.get(JOB_NAME + "_step")
+                        .tasklet((contribution, chunkContext) -> RepeatStatus.FINISHED)
+                        .build())
+                .build();
+
+        return configurer.getJobLauncher().run(job, jobParameters);
+    }
+
+    private JobParameters parameters(String date) {
+        return new JobParametersBuilder()
+                .addString("date", date)
+                .toJobParameters();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+class OffHeapItemBufferTest {
+
+    private static final ItemCodec<String> CODEC = new ItemCodec<>() {
+        @Override
+        public void encode(String item, ByteBuffer out) {
+            ItemCodec.putString(out, item);
+        }
+
+        @Override
+        public String decode(ByteBuffer in) {
+            return ItemCodec.getString(in);
+        }
+    };
+
+    @Test
+    void segment_가_모자라면_다음_segment_에_쓰고_그대로_읽는다() {
+        // given : "item-0" 은 4 + 6 = 10 바이트 → segment 하나에 3개
+        OffHeapItemBuffer<String> buffer = new OffHeapItemBuffer<>(CODEC, 32);
+
+        // when
+        List<OffHeapItem<String>> items = append(buffer, 0, 7);
+
+        // then
+        Assertions.assertThat(items).extracting(OffHeapItem::getSegment).containsExactly(0, 0, 0, 1, 1, 1, 2);
+        Assertions.assertThat(items).extracting(buffer::read)
+                .containsExactly("item-0", "item-1", "item-2", "item-3", "item-4", "item-5", "item-6");
+        Assertions.assertThat(buffer.allocatedBytes()).isEqualTo(96);
+    }
+
+    @Test
+    void 다_쓴_segment_는_다른_청크가_남아_있어도_재사용한다() {
+        // given : 청크 1 이 segment 0, 1 을 채우고 청크 2 가 segment 2 에 있는 상태
+        OffHeapItemBuffer<String> buffer = new OffHeapItemBuffer<>(CODEC, 32);
+        List<OffHeapItem<String>> first = append(buffer, 0, 6);
+        List<OffHeapItem<String>> second = append(buffer, 6, 1);
+
+        // when : 청크 1 만 쓰고 청크 3 을 버퍼에 넣음
+        first.forEach(buffer::release);
+        List<OffHeapItem<String>> third = append(buffer, 7, 6);
+
+        // then : 새로 할당하지 않음
+        Assertions.assertThat(buffer.allocatedBytes()).isEqualTo(96);
+        Assertions.assertThat(second).extracting(buffer::read).containsExactly("item-6");
+        Assertions.assertThat(third).extracting(buffer::read)
+                .containsExactly("item-7", "item-8", "item-9", "item-10", "item-11", "item-12");
+    }
+
+    @Test
+    void segment_보다_큰_아이템은_넣을_수_없다() {
+        OffHeapItemBuffer<String> buffer = new OffHeapItemBuffer<>(CODEC, 8);
+
+        Assertions.assertThatThrownBy(() -> buffer.append("too large item"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<OffHeapItem<String>> append(OffHeapItemBuffer<String> buffer, int from, int count) {
+        List<OffHeapItem<String>> items = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            items.add(buffer.append("item-" + i));
+        }
+        return items;
+    }
+}
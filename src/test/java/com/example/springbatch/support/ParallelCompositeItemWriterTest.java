@@ -0,0 +1,79 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.WriteFailedException;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class ParallelCompositeItemWriterTest {
+
+    private final Map<String, Integer> completions = new ConcurrentHashMap<>();
+    private final Map<String, List<? extends Integer>> written = new ConcurrentHashMap<>();
+
+    @Test
+    void 모든_writer_가_성공하면_같이_커밋한다() throws Exception {
+        // given
+        Map<String, ItemWriter<? super Integer>> writers = new LinkedHashMap<>();
+        writers.put("csv", recording("csv"));
+        writers.put("jdbc", recording("jdbc"));
+        writers.put("jpa", recording("jpa"));
+
+        // when
+        writer(writers).write(Arrays.asList(1, 2, 3));
+
+        // then
+        Assertions.assertThat(written).containsOnlyKeys("csv", "jdbc", "jpa");
+        Assertions.assertThat(completions).containsOnlyKeys("csv", "jdbc", "jpa")
+                .allSatisfy((sink, status) -> Assertions.assertThat(status).isEqualTo(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    @Test
+    void writer_하나가_실패하면_나머지도_롤백하고_실패한_writer_를_알려준다() {
+        // given
+        Map<String, ItemWriter<? super Integer>> writers = new LinkedHashMap<>();
+        writers.put("csv", recording("csv"));
+        writers.put("jdbc", items -> {
+            throw new IllegalStateException("jdbc 실패");
+        });
+        writers.put("jpa", recording("jpa"));
+
+        // when
+        Assertions.assertThatThrownBy(() -> writer(writers).write(Arrays.asList(1, 2, 3)))
+                // then
+                .isInstanceOf(WriteFailedException.class)
+                .hasMessageContaining("[jdbc]")
+                .hasRootCauseMessage("jdbc 실패");
+
+        Assertions.assertThat(written).containsOnlyKeys("csv", "jpa");
+        Assertions.assertThat(completions).containsOnlyKeys("csv", "jpa")
+                .allSatisfy((sink, status) -> Assertions.assertThat(status).isEqualTo(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private ParallelCompositeItemWriter<Integer> writer(Map<String, ItemWriter<? super Integer>> writers) {
+        return new ParallelCompositeItemWriter<>("test", writers,
+                new SimpleAsyncTaskExecutor("test-"), new ResourcelessTransactionManager());
+    }
+
+    // 자기 트랜잭션이 커밋됐는지 롤백됐는지 기록하는 writer
+    private ItemWriter<Integer> recording(String sink) {
+        return items -> {
+            written.put(sink, items);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    completions.put(sink, status);
+                }
+            });
+        };
+    }
+}
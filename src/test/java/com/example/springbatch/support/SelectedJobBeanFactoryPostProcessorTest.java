@@ -0,0 +1,119 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.job.SimpleJob;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class SelectedJobBeanFactoryPostProcessorTest {
+
+    private static final Set<String> created = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() {
+        created.clear();
+    }
+
+    @Test
+    void 고른_잡의_설정만_만들고_나머지_설정의_빈은_필요할_때_만든다() {
+        // given
+        try (AnnotationConfigApplicationContext context = context("selectedJob")) {
+            // then
+            Assertions.assertThat(created).containsExactlyInAnyOrder("selectedJob", "selectedReader");
+            Assertions.assertThat(context.getBean(JobListHolder.class).jobs)
+                    .extracting(Job::getName)
+                    .containsExactly("selectedJob");
+
+            // when : 이름으로 찾으면 그때 만들어짐
+            context.getBean("otherJob", Job.class);
+            context.getBean("otherReader");
+            Assertions.assertThat(created).contains("otherJob", "otherReader");
+        }
+    }
+
+    @Test
+    void job_names_가_없으면_아무것도_바꾸지_않는다() {
+        // given
+        try (AnnotationConfigApplicationContext context = context(null)) {
+            // then
+            Assertions.assertThat(created).containsExactlyInAnyOrder("selectedJob", "selectedReader", "otherJob", "otherReader");
+            Assertions.assertThat(context.getBean(JobListHolder.class).jobs).hasSize(2);
+        }
+    }
+
+    private AnnotationConfigApplicationContext context(String jobNames) {
+        MockEnvironment environment = new MockEnvironment();
+        if (jobNames != null) {
+            environment.setProperty("spring.batch.job.names", jobNames);
+        }
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setEnvironment(environment);
+        context.register(PostProcessorConfiguration.class, SelectedConfiguration.class, OtherConfiguration.class, JobListHolder.class);
+        context.refresh();
+        return context;
+    }
+
+    private static Job job(String name) {
+        created.add(name);
+        SimpleJob job = new SimpleJob(name);
+        job.setJobRepository(Mockito.mock(JobRepository.class));
+        return job;
+    }
+
+    @Configuration
+    static class PostProcessorConfiguration {
+        @Bean
+        static SelectedJobBeanFactoryPostProcessor selectedJobBeanFactoryPostProcessor() {
+            return new SelectedJobBeanFactoryPostProcessor();
+        }
+    }
+
+    @Configuration
+    static class SelectedConfiguration {
+        @Bean
+        public Job selectedJob() {
+            return job("selectedJob");
+        }
+
+        @Bean
+        public Object selectedReader() {
+            created.add("selectedReader");
+            return new Object();
+        }
+    }
+
+    @Configuration
+    static class OtherConfiguration {
+        @Bean
+        public Job otherJob() {
+            return job("otherJob");
+        }
+
+        @Bean
+        public Object otherReader() {
+            created.add("otherReader");
+            return new Object();
+        }
+    }
+
+    // JobLauncherApplicationRunner 처럼 Job 목록을 주입받는 빈
+    static class JobListHolder {
+        private final List<Job> jobs;
+
+        JobListHolder(List<Job> jobs) {
+            this.jobs = jobs;
+        }
+    }
+}
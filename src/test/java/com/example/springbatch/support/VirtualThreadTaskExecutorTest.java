@@ -0,0 +1,34 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class VirtualThreadTaskExecutorTest {
+
+    @Test
+    void 가상_스레드를_지원하지_않는_JDK_면_만들_수_없다() {
+        Assumptions.assumeFalse(VirtualThreadTaskExecutor.isSupported());
+
+        Assertions.assertThatThrownBy(() -> new VirtualThreadTaskExecutor("vt-", 1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void 작업을_가상_스레드에서_실행한다() throws Exception {
+        Assumptions.assumeTrue(VirtualThreadTaskExecutor.isSupported());
+
+        // given
+        VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("vt-", 1);
+        CompletableFuture<String> threadName = new CompletableFuture<>();
+
+        // when
+        executor.execute(() -> threadName.complete(Thread.currentThread().toString()));
+
+        // then
+        Assertions.assertThat(threadName.get(5, TimeUnit.SECONDS)).startsWith("VirtualThread").contains("vt-0");
+    }
+}
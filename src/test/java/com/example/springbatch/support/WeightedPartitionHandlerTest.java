@@ -0,0 +1,87 @@
+package com.example.springbatch.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class WeightedPartitionHandlerTest {
+
+    @Test
+    void 무게가_큰_파티션부터_실행한다() throws Exception {
+        // given
+        StepExecution managerStepExecution = MetaDataInstanceFactory.createStepExecution();
+        JobExecution jobExecution = managerStepExecution.getJobExecution();
+        Set<StepExecution> partitions = new HashSet<>();
+        partitions.add(partition(jobExecution, "small", 10));
+        partitions.add(partition(jobExecution, "large", 1000));
+        partitions.add(partition(jobExecution, "medium", 100));
+
+        List<String> executed = new ArrayList<>();
+        WeightedPartitionHandler handler = new WeightedPartitionHandler(recording(executed), new SyncTaskExecutor());
+
+        // when
+        Collection<StepExecution> result = handler.handle(splitter(partitions), managerStepExecution);
+
+        // then
+        Assertions.assertThat(executed).containsExactly("large", "medium", "small");
+        Assertions.assertThat(result).hasSize(3)
+                .allMatch(stepExecution -> stepExecution.getStatus() == BatchStatus.COMPLETED);
+    }
+
+    private StepExecution partition(JobExecution jobExecution, String name, long weight) {
+        StepExecution stepExecution = jobExecution.createStepExecution(name);
+        stepExecution.getExecutionContext().putLong(WeightedPartitionHandler.WEIGHT, weight);
+        return stepExecution;
+    }
+
+    private Step recording(List<String> executed) {
+        return new Step() {
+            @Override
+            public String getName() {
+                return "worker";
+            }
+
+            @Override
+            public boolean isAllowStartIfComplete() {
+                return false;
+            }
+
+            @Override
+            public int getStartLimit() {
+                return Integer.MAX_VALUE;
+            }
+
+            @Override
+            public void execute(StepExecution stepExecution) {
+                executed.add(stepExecution.getStepName());
+                stepExecution.setStatus(BatchStatus.COMPLETED);
+            }
+        };
+    }
+
+    private StepExecutionSplitter splitter(Set<StepExecution> partitions) {
+        return new StepExecutionSplitter() {
+            @Override
+            public String getStepName() {
+                return "worker";
+            }
+
+            @Override
+            public Set<StepExecution> split(StepExecution stepExecution, int gridSize) {
+                return partitions;
+            }
+        };
+    }
+}